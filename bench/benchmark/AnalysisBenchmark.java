@@ -0,0 +1,47 @@
+package benchmark;
+
+import java2rust.JavaTranspiler;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/// Measures the analysis of preanalyzed items, which describes their types and bodies.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class AnalysisBenchmark {
+	@Param({"SMALL", "MEDIUM", "LARGE"})
+	public Corpus corpus;
+	/// Whether bodies are rendered concurrently, see [JavaTranspiler#parallelAnalysis].
+	@Param({"false", "true"})
+	public boolean parallel;
+
+	private JavaTranspiler transpiler;
+
+	// Analysis accumulates thrown types and calls into items, so every invocation needs fresh items.
+	@Setup(Level.Invocation)
+	public void setup() {
+		transpiler = corpus.preanalyzed();
+		transpiler.parallelAnalysis = parallel;
+	}
+
+	@TearDown(Level.Invocation)
+	public void tearDown() {
+		transpiler.close();
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteCorpus() throws IOException {
+		corpus.delete();
+	}
+
+	@Benchmark
+	public JavaTranspiler analyze() {
+		transpiler.analyze();
+		return transpiler;
+	}
+}
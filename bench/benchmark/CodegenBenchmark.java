@@ -0,0 +1,67 @@
+package benchmark;
+
+import com.github.javaparser.ast.stmt.BlockStmt;
+import java2rust.JavaTranspiler;
+import java2rust.rust.IRustFunction;
+import java2rust.rust.RustConstructor;
+import java2rust.rust.RustMethod;
+import java2rust.rust.RustPackage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/// Measures code generation: translating bodies with `RustVisitor` and rendering analyzed packages.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CodegenBenchmark {
+	@Param({"SMALL", "MEDIUM", "LARGE"})
+	public Corpus corpus;
+
+	private JavaTranspiler transpiler;
+	private List<Body> bodies;
+	private List<RustPackage> packages;
+
+	private record Body(BlockStmt java, IRustFunction function) {}
+
+	@Setup(Level.Trial)
+	public void setup() {
+		transpiler = corpus.analyzed();
+		bodies = Corpus
+			.jar(transpiler)
+			.items()
+			.flatMap(item -> item.methods.stream())
+			.<Body>mapMulti((function, bodies) -> {
+				if (function instanceof RustMethod method && method.java.getBody().isPresent())
+					bodies.accept(new Body(method.java.getBody().get(), method));
+				else if (function instanceof RustConstructor constructor)
+					bodies.accept(new Body(constructor.java.getBody(), constructor));
+			})
+			.toList();
+		packages = Corpus.jar(transpiler).packages().toList();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		transpiler.close();
+		corpus.delete();
+	}
+
+	@Benchmark
+	public void translate(Blackhole blackhole) {
+		for (Body body : bodies)
+			blackhole.consume(transpiler.describe(body.java(), body.function()));
+	}
+
+	@Benchmark
+	public void render(Blackhole blackhole) {
+		for (RustPackage pkg : packages)
+			blackhole.consume(pkg.toString());
+	}
+}
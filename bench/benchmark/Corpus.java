@@ -0,0 +1,127 @@
+package benchmark;
+
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.StaticJavaParser;
+import java2rust.JavaTranspiler;
+import java2rust.rust.RustJar;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/// The synthetic Java projects the benchmarks transpile.
+///
+/// The small project is checked in under `bench/corpus/small`. The medium and large projects replicate it
+/// 10 and 100 times under distinct root packages, and are generated in a temporary directory on first use so
+/// that every run measures the same sources. Benchmarks delete them on tear down with [#delete()].
+public enum Corpus {
+	SMALL(1),
+	MEDIUM(10),
+	LARGE(100);
+
+	/// The checked-in project, relative to the working directory, which is expected to be the repository.
+	private static final Path SMALL_PROJECT = Path.of("bench", "corpus", "small");
+
+	public final int replicas;
+	private Path project;
+
+	Corpus(int replicas) {
+		this.replicas = replicas;
+	}
+
+	/// Returns the project directory, containing a `src` directory.
+	public synchronized Path project() {
+		if (project == null)
+			project = replicas == 1 ? SMALL_PROJECT.toAbsolutePath() : replicate();
+		return project;
+	}
+
+	/// Deletes the project if it was generated, to be generated again on next use.
+	public synchronized void delete() throws IOException {
+		if (project != null && replicas != 1)
+			delete(project);
+		project = null;
+	}
+
+	/// Returns the Java files of the project, in a stable order.
+	public List<Path> files() {
+		try (Stream<Path> files = Files.walk(project().resolve("src"))) {
+			return files.filter(file -> file.toString().endsWith(".java")).sorted().toList();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/// Returns a new transpiler, to be closed once done, with the static parser configured as `cli.Main` does.
+	public static JavaTranspiler transpiler() {
+		ParserConfiguration config = new ParserConfiguration();
+		config.setLanguageLevel(ParserConfiguration.LanguageLevel.JAVA_25);
+		StaticJavaParser.setConfiguration(config);
+		JavaTranspiler transpiler = new JavaTranspiler();
+		config.setSymbolResolver(transpiler.solver);
+		return transpiler;
+	}
+
+	/// Returns a new transpiler with this project parsed.
+	public JavaTranspiler parsed() {
+		JavaTranspiler transpiler = transpiler();
+		transpiler.addSources(project().toFile());
+		return transpiler;
+	}
+
+	/// Returns a new transpiler with this project parsed and preanalyzed.
+	public JavaTranspiler preanalyzed() {
+		JavaTranspiler transpiler = parsed();
+		transpiler.preanalyze();
+		return transpiler;
+	}
+
+	/// Returns a new transpiler with this project parsed, preanalyzed and analyzed.
+	public JavaTranspiler analyzed() {
+		JavaTranspiler transpiler = preanalyzed();
+		transpiler.analyze();
+		return transpiler;
+	}
+
+	/// Returns the jar of the project within `transpiler`.
+	public static RustJar jar(JavaTranspiler transpiler) {
+		return transpiler.crates.getFirst();
+	}
+
+	private Path replicate() {
+		try {
+			Path project = Files.createTempDirectory("java2rust-" + name().toLowerCase());
+			Path source = SMALL_PROJECT.resolve("src").resolve("corpus");
+			List<Path> files;
+			try (Stream<Path> walk = Files.walk(source)) {
+				files = walk.filter(Files::isRegularFile).sorted().toList();
+			}
+			for (int i = 0; i < replicas; i++) {
+				String root = "corpus" + i;
+				Path target = project.resolve("src").resolve(root);
+				for (Path file : files) {
+					Path copy = target.resolve(source.relativize(file).toString());
+					Files.createDirectories(copy.getParent());
+					Files.writeString(copy, Files.readString(file).replace("corpus.", root + "."));
+				}
+			}
+			return project;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/// Deletes a directory and its content, if it exists.
+	static void delete(Path directory) throws IOException {
+		if (!Files.exists(directory))
+			return;
+		try (Stream<Path> walk = Files.walk(directory)) {
+			for (Path path : walk.sorted(Comparator.reverseOrder()).toList())
+				Files.delete(path);
+		}
+	}
+}
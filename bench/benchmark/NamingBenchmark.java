@@ -0,0 +1,85 @@
+package benchmark;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.expr.SimpleName;
+import java2rust.Java2Rust;
+import org.apache.commons.lang3.ArrayUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/// Measures converting the names of the corpus to Rust, against the boxing implementation it replaced.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class NamingBenchmark {
+	/// Every name of the small corpus, with duplicates, as conversions meet them.
+	private List<String> names;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Corpus.transpiler().close();
+		names = Corpus.SMALL.files().stream().flatMap(NamingBenchmark::names).toList();
+		// The benchmarks compare implementations of the same conversion, which must agree over the corpus.
+		for (String name : names) {
+			String legacy = legacyCamelCaseToSnakeCase(name);
+			String converted = Java2Rust.camelCaseToSnakeCase(name);
+			if (!legacy.equals(converted))
+				throw new IllegalStateException(
+					"'%s' is converted to '%s' rather than '%s'".formatted(name, converted, legacy));
+		}
+	}
+
+	@Benchmark
+	public void legacy(Blackhole blackhole) {
+		for (String name : names)
+			blackhole.consume(legacyCamelCaseToSnakeCase(name));
+	}
+
+	@Benchmark
+	public void convert(Blackhole blackhole) {
+		for (String name : names)
+			blackhole.consume(Java2Rust.camelCaseToSnakeCase(name));
+	}
+
+	@Benchmark
+	public void memoized(Blackhole blackhole) {
+		for (String name : names)
+			blackhole.consume(Java2Rust.rustName(name));
+	}
+
+	private static Stream<String> names(Path file) {
+		try {
+			return StaticJavaParser.parse(file).findAll(SimpleName.class).stream().map(SimpleName::getIdentifier);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/// The conversion as it was before being made primitive and memoized.
+	private static String legacyCamelCaseToSnakeCase(String java) {
+		StringBuilder sb = new StringBuilder();
+		Character[] chars = ArrayUtils.toObject(java.toCharArray());
+		int i = 0;
+		for (Character c : chars) {
+			if (Character.isUpperCase(c)) {
+				if (!sb.isEmpty() && !Character.isUpperCase(ArrayUtils.get(chars, i + 1, 'A')))
+					sb.append('_');
+				sb.append(Character.toLowerCase(c));
+			} else {
+				sb.append(c);
+			}
+			i++;
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,55 @@
+package benchmark;
+
+import java2rust.JavaTranspiler;
+import java2rust.Metrics;
+import java2rust.rust.RustJar;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/// Measures writing an analyzed crate to disk.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class OutputBenchmark {
+	@Param({"SMALL", "MEDIUM", "LARGE"})
+	public Corpus corpus;
+
+	private JavaTranspiler transpiler;
+	private RustJar jar;
+	private Metrics metrics;
+	private Path output;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		transpiler = corpus.analyzed();
+		jar = Corpus.jar(transpiler);
+		metrics = transpiler.metrics;
+		output = Files.createTempDirectory("java2rust-output");
+	}
+
+	// Unchanged files are not rewritten, so every invocation starts from an empty directory.
+	@Setup(Level.Invocation)
+	public void clean() throws IOException {
+		Corpus.delete(output);
+		Files.createDirectories(output);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Corpus.delete(output);
+		transpiler.close();
+		corpus.delete();
+	}
+
+	@Benchmark
+	public void generate() throws IOException {
+		jar.generate(output, metrics, transpiler.pool);
+	}
+}
@@ -0,0 +1,51 @@
+package benchmark;
+
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.StaticJavaParser;
+import java2rust.rust.RustJar;
+import java2rust.rust.RustPackage;
+import java2rust.rust.RustUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/// Measures parsing Java files into units.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ParseBenchmark {
+	@Param({"SMALL", "MEDIUM", "LARGE"})
+	public Corpus corpus;
+
+	private List<Path> files;
+	private ParserConfiguration config;
+	private RustJar jar;
+	private RustPackage lib;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Corpus.transpiler().close();
+		config = StaticJavaParser.getParserConfiguration();
+		files = corpus.files();
+		lib = RustPackage.lib("bench");
+		jar = new RustJar("bench", "bench", corpus.project(), lib, null);
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteCorpus() throws IOException {
+		corpus.delete();
+	}
+
+	@Benchmark
+	public void parse(Blackhole blackhole) throws IOException {
+		for (Path file : files)
+			blackhole.consume(new RustUnit(jar, lib, file, config));
+	}
+}
@@ -0,0 +1,43 @@
+package benchmark;
+
+import java2rust.JavaTranspiler;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/// Measures the declaration pass of `DeclVisitor` over parsed units.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PreanalysisBenchmark {
+	@Param({"SMALL", "MEDIUM", "LARGE"})
+	public Corpus corpus;
+
+	private JavaTranspiler transpiler;
+
+	// Preanalysis declares items into packages, so every invocation needs freshly parsed units.
+	@Setup(Level.Invocation)
+	public void setup() {
+		transpiler = corpus.parsed();
+	}
+
+	@TearDown(Level.Invocation)
+	public void tearDown() {
+		transpiler.close();
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteCorpus() throws IOException {
+		corpus.delete();
+	}
+
+	@Benchmark
+	public JavaTranspiler preanalyze() {
+		transpiler.preanalyze();
+		return transpiler;
+	}
+}
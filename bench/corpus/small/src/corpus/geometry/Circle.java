@@ -0,0 +1,36 @@
+package corpus.geometry;
+
+public class Circle implements Shape {
+	public static final double TAU = 6.283185307179586;
+	private final double radius;
+	private int scaled;
+
+	public Circle(double radius) {
+		if (radius < 0)
+			throw new IllegalArgumentException("negative radius");
+		this.radius = radius;
+	}
+
+	public double radius() {
+		return radius;
+	}
+
+	@Override
+	public double area() {
+		return TAU / 2 * radius * radius;
+	}
+
+	@Override
+	public double perimeter() {
+		return TAU * radius;
+	}
+
+	public Circle scale(double factor) {
+		scaled++;
+		return new Circle(radius * factor);
+	}
+
+	public int timesScaled() {
+		return scaled;
+	}
+}
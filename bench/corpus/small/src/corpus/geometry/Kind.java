@@ -0,0 +1,7 @@
+package corpus.geometry;
+
+public enum Kind {
+	CIRCLE,
+	RECTANGLE,
+	POLYGON
+}
@@ -0,0 +1,25 @@
+package corpus.geometry;
+
+public class Rectangle implements Shape {
+	private final double width;
+	private final double height;
+
+	public Rectangle(double width, double height) {
+		this.width = width;
+		this.height = height;
+	}
+
+	@Override
+	public double area() {
+		return width * height;
+	}
+
+	@Override
+	public double perimeter() {
+		return 2 * (width + height);
+	}
+
+	public boolean isSquare() {
+		return width == height;
+	}
+}
@@ -0,0 +1,11 @@
+package corpus.geometry;
+
+public interface Shape {
+	double area();
+
+	double perimeter();
+
+	default boolean isLargerThan(Shape other) {
+		return area() > other.area();
+	}
+}
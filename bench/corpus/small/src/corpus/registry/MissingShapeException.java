@@ -0,0 +1,10 @@
+package corpus.registry;
+
+public class MissingShapeException extends Exception {
+	public final int index;
+
+	public MissingShapeException(int index) {
+		super("No shape at index " + index);
+		this.index = index;
+	}
+}
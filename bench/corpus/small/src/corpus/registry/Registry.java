@@ -0,0 +1,57 @@
+package corpus.registry;
+
+import corpus.geometry.Circle;
+import corpus.geometry.Kind;
+import corpus.geometry.Rectangle;
+import corpus.geometry.Shape;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class Registry<T extends Shape> {
+	private final List<T> shapes = new ArrayList<>();
+	private int version;
+
+	public void add(T shape) {
+		shapes.add(shape);
+		version++;
+	}
+
+	public T get(int index) throws MissingShapeException {
+		if (index < 0 || index >= shapes.size())
+			throw new MissingShapeException(index);
+		return shapes.get(index);
+	}
+
+	public double totalArea() {
+		double total = 0;
+		for (T shape : shapes)
+			total += shape.area();
+		return total;
+	}
+
+	public T largest() throws MissingShapeException {
+		T largest = get(0);
+		for (int i = 1; i < shapes.size(); i++) {
+			T shape = get(i);
+			if (shape.isLargerThan(largest))
+				largest = shape;
+		}
+		return largest;
+	}
+
+	public static Shape create(Kind kind, double size) {
+		switch (kind) {
+			case CIRCLE:
+				return new Circle(size);
+			case RECTANGLE:
+				return new Rectangle(size, size * 2);
+			default:
+				return new Rectangle(size, size);
+		}
+	}
+
+	public int version() {
+		return version;
+	}
+}
@@ -0,0 +1,15 @@
+package corpus.registry;
+
+import corpus.geometry.Shape;
+
+public record Summary(int count, double area) {
+	public static Summary of(Registry<? extends Shape> registry, int count) {
+		return new Summary(count, registry.totalArea());
+	}
+
+	public double averageArea() {
+		if (count == 0)
+			return 0;
+		return area / count;
+	}
+}
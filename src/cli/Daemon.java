@@ -0,0 +1,164 @@
+package cli;
+
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.StaticJavaParser;
+import java2rust.JavaTranspiler;
+import org.jspecify.annotations.Nullable;
+import picocli.CommandLine;
+
+import java.io.*;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/// A long-running process serving runs over a Unix domain socket, one at a time.
+///
+/// The transpiler of the previous run is kept along with its dependencies, parsed, preanalyzed and analyzed. A run
+/// with the same dependencies and settings restores it to that state instead of loading them again.
+///
+/// Runs are serialized, as the output of a run is captured by replacing [System#out] and [System#err], which are
+/// global to the process. Clients connecting while a run is served wait for it to end.
+///
+/// A request holds the number of arguments of the run, then the working directory of the client and each argument
+/// as UTF-8 strings prefixed by their length in bytes, so that arguments may be empty or span lines. The output of
+/// the run is streamed back, followed by a line holding a NUL character and its exit code. Requests with more
+/// arguments or longer strings than any command line would hold are rejected before anything is allocated for them.
+final class Daemon {
+	private static final char END = '\0';
+	/// The largest number of arguments of a request.
+	private static final int MAX_ARGUMENTS = 1 << 12;
+	/// The largest length in bytes of an argument or of the working directory.
+	private static final int MAX_LENGTH = 1 << 16;
+
+	private final Path socket;
+	private @Nullable Warm warm;
+
+	/// A transpiler with its dependencies analyzed, along with what it was created with.
+	private record Warm(
+		List<Object> settings,
+		JavaTranspiler transpiler,
+		ParserConfiguration config,
+		JavaTranspiler.Snapshot snapshot
+	) {}
+
+	Daemon(Path socket) {
+		this.socket = socket;
+	}
+
+	void serve() throws IOException {
+		Files.deleteIfExists(socket);
+		try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+			server.bind(UnixDomainSocketAddress.of(socket));
+			System.out.printf("==> Listening on %s\n", socket);
+			while (true) {
+				try (SocketChannel client = server.accept()) {
+					handle(client);
+				} catch (IOException e) {
+					System.err.printf("Failed to serve request: %s\n", e.getLocalizedMessage());
+				}
+			}
+		} finally {
+			Files.deleteIfExists(socket);
+		}
+	}
+
+	private void handle(SocketChannel client) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(client)));
+		int count = in.readInt();
+		if (count < 0 || count > MAX_ARGUMENTS)
+			throw new IOException("Invalid argument count " + count);
+		String directory = read(in);
+		List<String> args = new ArrayList<>();
+		for (int i = 0; i < count; i++)
+			args.add(read(in));
+
+		PrintStream out = new PrintStream(Channels.newOutputStream(client), true, StandardCharsets.UTF_8);
+		PrintStream stdout = System.out;
+		PrintStream stderr = System.err;
+		stdout.printf("=> %s\n", String.join(" ", args));
+		System.setOut(out);
+		System.setErr(out);
+		int exitCode;
+		try {
+			exitCode = new CommandLine(new Main(this, Path.of(directory))).execute(args.toArray(String[]::new));
+		} finally {
+			System.setOut(stdout);
+			System.setErr(stderr);
+		}
+		out.printf("%c%d\n", END, exitCode);
+		out.flush();
+	}
+
+	/// Returns the transpiler for `main`, restored to the state following the analysis of its dependencies, or
+	/// `null` if they couldn't be loaded.
+	@Nullable JavaTranspiler transpiler(Main main) {
+		List<Object> settings = main.settings();
+		if (warm != null && warm.settings().equals(settings)) {
+			System.out.println("==> Reusing loaded dependencies");
+			StaticJavaParser.setConfiguration(warm.config());
+			warm.transpiler().restore(warm.snapshot());
+			warm.transpiler().metrics.reset();
+			warm.transpiler().diagnostics.reset();
+			warm.transpiler().diagnostics.threshold = main.threshold();
+			return warm.transpiler();
+		}
+
+		if (warm != null) {
+			warm.transpiler().close();
+			warm = null;
+		}
+		JavaTranspiler transpiler = main.transpiler();
+		if (transpiler == null)
+			return null;
+		try (var _ = transpiler.metrics.phase("dependencies analysis")) {
+			transpiler.preanalyze();
+			transpiler.analyze();
+		}
+		warm = new Warm(settings, transpiler, StaticJavaParser.getParserConfiguration(), transpiler.snapshot());
+		return transpiler;
+	}
+
+	/// Sends a run to the daemon listening on `socket`, printing its output, and returns its exit code.
+	static int send(Path socket, List<String> args) throws IOException {
+		try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+			out.writeInt(args.size());
+			write(out, Path.of("").toAbsolutePath().toString());
+			for (String arg : args)
+				write(out, arg);
+			out.flush();
+
+			BufferedReader in = new BufferedReader(new InputStreamReader(
+				Channels.newInputStream(channel),
+				StandardCharsets.UTF_8));
+			for (String line = in.readLine(); line != null; line = in.readLine()) {
+				if (!line.isEmpty() && line.charAt(0) == END)
+					return Integer.parseInt(line.substring(1));
+				System.out.println(line);
+			}
+			throw new EOFException("The daemon closed the connection before the run ended");
+		}
+	}
+
+	private static String read(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0 || length > MAX_LENGTH)
+			throw new IOException("Invalid argument length " + length);
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void write(DataOutputStream out, String s) throws IOException {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+}
@@ -2,20 +2,32 @@ package cli;
 
 import com.github.javaparser.ParserConfiguration;
 import com.github.javaparser.StaticJavaParser;
+import java2rust.Diagnostics;
+import java2rust.IncrementalState;
 import java2rust.JavaTranspiler;
+import java2rust.Metrics;
+import java2rust.SpillStore;
 import java2rust.rust.RustJar;
 import java2rust.rust.RustPackage;
+import javaparser.ParseCache;
+import org.jspecify.annotations.Nullable;
 import picocli.CommandLine;
+import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
 import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 @CommandLine.Command(name = "java2rust", version = "java2rust 1.0", mixinStandardHelpOptions = true)
 public class Main implements Runnable {
-	@Parameters(paramLabel = "<output>", description = "The directory in which to generate Rust crates.", index = "0")
+	@Parameters(paramLabel = "<output>", description = "The directory in which to generate Rust crates.", index = "0", arity = "0..1")
 	private File output;
 
 	@Option(names = "--sources", description = "Java files or directories to convert to Rust crates.")
@@ -27,6 +39,59 @@ public class Main implements Runnable {
 	@Option(names = "--language")
 	private ParserConfiguration.LanguageLevel languageLevel = ParserConfiguration.LanguageLevel.JAVA_25;
 
+	@Option(names = "--jobs", description = "The number of threads used to parse Java files.")
+	private int jobs = Runtime.getRuntime().availableProcessors();
+
+	@Option(names = "--parallel-analysis", description = "Render the bodies of functions concurrently, using --jobs threads, once their symbols are resolved on a single thread.")
+	private boolean parallelAnalysis;
+
+	@Option(names = "--cache", description = "A directory in which to cache parsed dependencies between runs.")
+	private File cache;
+
+	@Option(names = "--incremental", description = "Only analyze and generate the units affected since the previous run into <output>.")
+	private boolean incremental;
+
+	@Option(names = "--metrics", description = "Print the timing of each phase and counters of the work done.")
+	private boolean printMetrics;
+
+	@Option(names = "--metrics-json", description = "A file in which to export the metrics as JSON.")
+	private File metricsJson;
+
+	@Option(names = "--verbose", description = "Print debug diagnostics as well, such as every file indexed.")
+	private boolean verbose;
+
+	@Option(names = "--stream", description = "Analyze each module as it is generated, releasing its Java sources once written, so that the heap holds the declarations of every crate but the bodies of a single module.")
+	private boolean stream;
+
+	@Option(names = "--spill", paramLabel = "<directory>", description = "With --stream, move the names and thrown types of each crate once generated to a file mapped in memory in <directory>.")
+	private File spill;
+
+	@Option(names = "--watch", description = "Keep running, transpiling the modules affected by every change to the sources.")
+	private boolean watch;
+
+	@Option(names = "--daemon", paramLabel = "<socket>", description = "Serve runs on a Unix domain socket, one at a time, keeping dependencies loaded between runs.")
+	private Path daemon;
+
+	@Option(names = "--connect", paramLabel = "<socket>", description = "Run within the daemon listening on a Unix domain socket.")
+	private Path connect;
+
+	@Spec
+	private CommandSpec spec;
+
+	/// The daemon this run is served by, if any.
+	private final @Nullable Daemon host;
+	/// The directory against which relative paths are resolved, that of the client when served by a daemon.
+	private final @Nullable Path directory;
+
+	public Main() {
+		this(null, null);
+	}
+
+	Main(@Nullable Daemon host, @Nullable Path directory) {
+		this.host = host;
+		this.directory = directory;
+	}
+
 	static void main(String[] args) {
 		int exitCode = new CommandLine(new Main()).execute(args);
 		System.exit(exitCode);
@@ -34,12 +99,43 @@ public class Main implements Runnable {
 
 	@Override
 	public void run() {
-		ParserConfiguration config = new ParserConfiguration();
-		config.setLanguageLevel(languageLevel);
-		StaticJavaParser.setConfiguration(config);
+		if (host != null && (daemon != null || connect != null || watch))
+			throw new ParameterException(spec.commandLine(), "--daemon, --connect and --watch can't be used within a daemon");
+		if (daemon != null) {
+			try {
+				new Daemon(daemon).serve();
+			} catch (IOException e) {
+				System.err.printf("Daemon failed: %s\n", e.getLocalizedMessage());
+			}
+			return;
+		}
+		if (output == null)
+			throw new ParameterException(spec.commandLine(), "Missing required parameter: '<output>'");
+		if (spill != null && (!stream || watch || incremental))
+			throw new ParameterException(spec.commandLine(), "--spill requires --stream, and can't be used with --watch or --incremental");
+		output = resolve(output);
+		cache = resolve(cache);
+		spill = resolve(spill);
+		metricsJson = resolve(metricsJson);
+		if (sources != null)
+			for (int i = 0; i < sources.length; i++)
+				sources[i] = resolve(sources[i]);
+		if (connect != null) {
+			try {
+				System.exit(Daemon.send(connect, forwardedArgs()));
+			} catch (IOException e) {
+				System.err.printf("Failed to reach daemon: %s\n", e.getLocalizedMessage());
+			}
+			return;
+		}
 
-		JavaTranspiler transpiler = new JavaTranspiler();
-		config.setSymbolResolver(transpiler.solver);
+		JavaTranspiler transpiler = host == null ? transpiler() : host.transpiler(this);
+		if (transpiler == null)
+			return;
+		transpiler.streaming = stream;
+		transpiler.parallelAnalysis = parallelAnalysis;
+		transpiler.trackReferences = incremental || watch;
+		Metrics metrics = transpiler.metrics;
 
 		for (int i = 0; i < sources.length; i++) {
 			try {
@@ -49,40 +145,192 @@ public class Main implements Runnable {
 			}
 		}
 
-		boolean hasError = false;
-		for (String dep : maven) {
-			System.out.println("=> " + dep);
-			try {
-				transpiler.addMavenDependency(dep);
-			} catch (Exception e) {
-				System.err.println(e);
-				hasError = true;
+		try (var _ = metrics.phase("parse")) {
+			for (File sources : this.sources) {
+				System.out.printf("=> %s\n", sources);
+				transpiler.addSources(sources);
 			}
 		}
-		if (hasError)
-			return;
 
-		for (File sources : this.sources) {
-			System.out.printf("=> %s\n", sources);
-			transpiler.addSources(sources);
+		System.out.printf("==> Processing %s Java files...\n", transpiler.crates.size());
+		try (var _ = metrics.phase("preanalyze")) {
+			transpiler.preanalyze();
+		}
+
+		IncrementalState previous = null;
+		if (incremental) {
+			previous = IncrementalState.load(output.toPath());
+			transpiler.skipUnchanged(previous);
 		}
 
-		System.out.printf("==> Processing %s Java files...\n", transpiler.crates.size());
-		transpiler.preanalyze();
+		if (stream) {
+			try (var _ = metrics.phase("link")) {
+				transpiler.link();
+			}
+			System.out.printf("==> Analyzing and generating '%s' crates...\n", transpiler.crates.size());
+			try (var _ = metrics.phase("stream"); SpillStore store = spill == null ? null : new SpillStore(spill.toPath())) {
+				transpiler.spill = store;
+				generate(transpiler, true);
+			} catch (IOException e) {
+				System.err.printf("Failed to spill: %s\n", e.getLocalizedMessage());
+			} finally {
+				transpiler.spill = null;
+			}
+		} else {
+			System.out.printf("==> Analyzing %s Java files...\n", transpiler.numberOfTasksToAnalyze());
+			try (var _ = metrics.phase("analyze")) {
+				transpiler.analyze();
+			}
+
+			System.out.printf("==> Generating '%s' crates...\n", transpiler.crates.size());
+			try (var _ = metrics.phase("generate")) {
+				generate(transpiler, false);
+			}
+		}
+		if (previous != null)
+			previous = record(transpiler, previous);
+
+		transpiler.interner.report(metrics);
+		if (printMetrics)
+			metrics.print(System.out);
+		if (metricsJson != null) {
+			try {
+				metrics.writeJson(metricsJson.toPath());
+			} catch (IOException e) {
+				System.err.printf("Failed to export metrics: %s\n", e.getLocalizedMessage());
+			}
+		}
+
+		transpiler.diagnostics.summarize(System.out);
+		System.out.println("==> Done!");
 
-		System.out.printf("==> Analyzing %s Java files...\n", transpiler.numberOfTasksToAnalyze());
-		transpiler.analyze();
+		if (watch)
+			watch(transpiler, previous);
+		// The daemon keeps its transpiler for the next runs.
+		if (host == null)
+			transpiler.close();
+	}
 
-		System.out.printf("==> Generating '%s' crates...\n", transpiler.crates.size());
+	/// Writes every crate, analyzing the pending ones module by module as they are written when `stream`ing.
+	private void generate(JavaTranspiler transpiler, boolean stream) {
 		for (RustJar jar : transpiler.crates) {
 			System.out.printf("\t%s\n", jar.name);
 			try {
-				jar.generate(output.toPath());
+				if (stream)
+					transpiler.stream(jar, output.toPath());
+				else
+					jar.generate(output.toPath(), transpiler.metrics, transpiler.pool);
 			} catch (IOException e) {
 				System.err.printf("\tFailed to write: %s\n", e.getLocalizedMessage());
 			}
 		}
+	}
 
-		System.out.println("==> Done!");
+	/// Records the state of this run in place of `previous`, and returns it.
+	private IncrementalState record(JavaTranspiler transpiler, IncrementalState previous) {
+		IncrementalState state = new IncrementalState(previous.file);
+		transpiler.record(state, previous);
+		try {
+			state.save();
+		} catch (IOException e) {
+			System.err.printf("\tFailed to save incremental state: %s\n", e.getLocalizedMessage());
+		}
+		return state;
+	}
+
+	/// Transpiles the modules affected by every change to the sources, until interrupted.
+	private void watch(JavaTranspiler transpiler, @Nullable IncrementalState previous) {
+		List<Path> roots = new ArrayList<>();
+		for (File sources : this.sources)
+			roots.add(sources.toPath().resolve("src"));
+		try (Watcher watcher = new Watcher(roots)) {
+			while (true) {
+				System.out.println("==> Watching for changes...");
+				Set<Path> changed = watcher.next();
+				long start = System.nanoTime();
+				transpiler.diagnostics.reset();
+				Set<RustPackage> touched = transpiler.update(changed);
+				System.out.printf("==> %s files changed, generating %s modules...\n", changed.size(), touched.size());
+				generate(transpiler, false);
+				if (previous != null)
+					previous = record(transpiler, previous);
+				transpiler.diagnostics.summarize(System.out);
+				System.out.printf("==> Done in %d ms\n", (System.nanoTime() - start) / 1_000_000);
+			}
+		} catch (IOException e) {
+			System.err.printf("Failed to watch sources: %s\n", e.getLocalizedMessage());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/// Returns a new transpiler with the dependencies of this run loaded, or `null` if some couldn't be.
+	@Nullable JavaTranspiler transpiler() {
+		ParserConfiguration config = new ParserConfiguration();
+		config.setLanguageLevel(languageLevel);
+		StaticJavaParser.setConfiguration(config);
+
+		JavaTranspiler transpiler = new JavaTranspiler(jobs);
+		transpiler.diagnostics.threshold = threshold();
+		if (cache != null) {
+			try {
+				transpiler.cache = new ParseCache(cache.toPath(), languageLevel);
+			} catch (IOException e) {
+				System.err.printf("Failed to open cache: %s\n", e.getLocalizedMessage());
+			}
+		}
+		config.setSymbolResolver(transpiler.solver);
+
+		boolean hasError = false;
+		try (var _ = transpiler.metrics.phase("dependencies")) {
+			for (String dep : dependencies()) {
+				System.out.println("=> " + dep);
+				try {
+					transpiler.addMavenDependency(dep);
+				} catch (Exception e) {
+					System.err.println(e);
+					hasError = true;
+				}
+			}
+		}
+		if (hasError) {
+			transpiler.close();
+			return null;
+		}
+		return transpiler;
+	}
+
+	/// Returns the least severe diagnostics printed by this run.
+	Diagnostics.Severity threshold() {
+		return verbose ? Diagnostics.Severity.DEBUG : Diagnostics.Severity.INFO;
+	}
+
+	/// Returns what a transpiler must be created with for this run, such that runs with equal settings can share one.
+	List<Object> settings() {
+		return List.of(dependencies(), languageLevel, jobs, cache == null ? "" : cache.getAbsoluteFile());
+	}
+
+	private File resolve(File file) {
+		if (file == null || directory == null || file.isAbsolute())
+			return file;
+		return directory.resolve(file.toPath()).toFile();
+	}
+
+	private List<String> dependencies() {
+		return maven == null ? List.of() : List.of(maven);
+	}
+
+	/// Returns the arguments of this run without `--connect`, for the daemon to run them.
+	private List<String> forwardedArgs() {
+		List<String> args = new ArrayList<>(spec.commandLine().getParseResult().originalArgs());
+		for (int i = 0; i < args.size(); i++) {
+			if (args.get(i).equals("--connect")) {
+				args.subList(i, Math.min(i + 2, args.size())).clear();
+				i--;
+			} else if (args.get(i).startsWith("--connect=")) {
+				args.remove(i--);
+			}
+		}
+		return args;
 	}
 }
@@ -0,0 +1,79 @@
+package cli;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/// Watches directories of Java sources, and the directories created within them, for changes.
+final class Watcher implements Closeable {
+	/// How long to wait for further changes before reporting them, as editors often save in several steps.
+	private static final long QUIET_MILLIS = 100;
+
+	private final WatchService service;
+	private final Collection<Path> roots;
+	private final Map<WatchKey, Path> directories = new HashMap<>();
+
+	Watcher(Collection<Path> roots) throws IOException {
+		service = FileSystems.getDefault().newWatchService();
+		this.roots = List.copyOf(roots);
+		for (Path root : roots)
+			register(root);
+	}
+
+	/// Waits for changes, then returns the Java files and directories changed, created or deleted once no other
+	/// change happens for a short while.
+	///
+	/// Events lost to an overflow can't be told apart, so the roots are then reported as changed as a whole, along
+	/// with every Java file under them, and the directories created meanwhile are registered.
+	Set<Path> next() throws IOException, InterruptedException {
+		Set<Path> changed = new TreeSet<>();
+		boolean overflowed = false;
+		for (WatchKey key = service.take(); key != null; key = service.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) {
+			Path directory = directories.get(key);
+			for (WatchEvent<?> event : key.pollEvents()) {
+				if (event.kind() == OVERFLOW)
+					overflowed = true;
+				if (directory == null || event.kind() == OVERFLOW)
+					continue;
+				Path path = directory.resolve((Path) event.context());
+				if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+					register(path);
+					try (Stream<Path> files = Files.walk(path)) {
+						files.filter(file -> file.toString().endsWith(".java")).forEach(changed::add);
+					}
+				} else if (event.kind() == ENTRY_DELETE || path.toString().endsWith(".java")) {
+					changed.add(path);
+				}
+			}
+			if (!key.reset())
+				directories.remove(key);
+		}
+		if (overflowed)
+			for (Path root : roots) {
+				register(root);
+				changed.add(root);
+				try (Stream<Path> files = Files.walk(root)) {
+					files.filter(file -> file.toString().endsWith(".java")).forEach(changed::add);
+				}
+			}
+		return changed;
+	}
+
+	/// Registers `root` and the directories under it, those already registered keeping their keys.
+	private void register(Path root) throws IOException {
+		try (Stream<Path> walk = Files.walk(root)) {
+			for (Path directory : walk.filter(Files::isDirectory).toList())
+				directories.put(directory.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), directory);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		service.close();
+	}
+}
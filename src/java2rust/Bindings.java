@@ -0,0 +1,182 @@
+package java2rust;
+
+import com.github.javaparser.ast.DataKey;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.expr.FieldAccessExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedValueDeclaration;
+import com.github.javaparser.resolution.types.ResolvedType;
+import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserParameterDeclaration;
+import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserVariableDeclaration;
+import org.jspecify.annotations.Nullable;
+
+import java.util.function.Supplier;
+
+/// What rendering a body needs to know of the declarations its calls, field accesses and names refer to, derived
+/// from their resolutions once and remembered on their nodes.
+///
+/// Rendering a body on its own derives the bindings of its nodes as it meets them. Parallel analysis instead binds
+/// every node of a body with [#bind(Node, JavaTranspiler)] on the calling thread, then renders the body on the pool
+/// within [#render(Runnable)], where bindings are only read: deriving them touches JavaParser's facades and type
+/// solvers, which aren't safe to share between threads. A node which wasn't bound beforehand is rendered as if its
+/// declaration couldn't be resolved.
+///
+/// Failures are reported once, when a binding is derived.
+public final class Bindings {
+	private static final DataKey<Call> CALL = new DataKey<>() {};
+	private static final DataKey<Access> ACCESS = new DataKey<>() {};
+	private static final DataKey<Name> NAME = new DataKey<>() {};
+	/// Whether the current thread renders concurrently with others, and must not derive bindings.
+	private static final ThreadLocal<Boolean> RENDERING = ThreadLocal.withInitial(() -> false);
+
+	/// The binding of a call of an unresolved method.
+	public static final Call UNRESOLVED_CALL = new Call(false, null, -1, false);
+	/// The binding of an access to an unresolved field.
+	public static final Access UNRESOLVED_ACCESS = new Access(false, -1, null);
+	/// The binding of an unresolved name.
+	public static final Name UNRESOLVED_NAME = new Name(null);
+
+	private Bindings() {}
+
+	/// A call of a method, static or not, along with its symbol or `-1` if its signature couldn't be solved.
+	///
+	/// @param scope the scope the method is called on if the call has none, `self` or the description of the type
+	///              declaring the method if it is static
+	public record Call(boolean isStatic, @Nullable String scope, int symbol, boolean returnsVoid) {}
+
+	/// An access to a static member or not, along with the symbol of the field accessed or `-1`.
+	///
+	/// @param scope the description of the type of the scope, if the access couldn't be solved and is assumed to
+	///              refer to a nested type instead
+	public record Access(boolean isStatic, int symbol, @Nullable String scope) {}
+
+	/// A name, along with the id of the type declaring the field it refers to if it is one.
+	public record Name(@Nullable String declaringType) {}
+
+	/// Binds every call, field access and name under `root`, so that it can be rendered within [#render(Runnable)].
+	public static void bind(Node root, JavaTranspiler transpiler) {
+		root.walk(node -> {
+			switch (node) {
+				case MethodCallExpr call -> call(call, transpiler);
+				case FieldAccessExpr access -> access(access, transpiler);
+				case NameExpr name -> name(name, transpiler);
+				default -> {}
+			}
+		});
+	}
+
+	/// Runs `renderer` on the current thread, which only reads the bindings derived beforehand.
+	public static void render(Runnable renderer) {
+		RENDERING.set(true);
+		try {
+			renderer.run();
+		} finally {
+			RENDERING.remove();
+		}
+	}
+
+	public static Call call(MethodCallExpr n, JavaTranspiler transpiler) {
+		return remember(n, CALL, UNRESOLVED_CALL, transpiler, () -> {
+			Resolution<ResolvedMethodDeclaration> resolution = transpiler.resolve(n);
+			if (resolution instanceof Resolution.Failed<ResolvedMethodDeclaration> failed) {
+				transpiler.diagnostics.warning("In MethodCallExpr", failed.reason());
+				return UNRESOLVED_CALL;
+			}
+			ResolvedMethodDeclaration resolved = resolution.orNull();
+			String scope = null;
+			if (n.getScope().isEmpty())
+				scope = resolved.isStatic() ? transpiler.describe(resolved.declaringType()) : "self";
+
+			// The signature and the return type of a declaration are only solved once asked for.
+			int symbol = -1;
+			Resolution<Integer> id = Resolution.of(() -> transpiler.symbols.id(resolved));
+			if (id instanceof Resolution.Failed<Integer> failed)
+				transpiler.diagnostics.warning("In MethodCallExpr", failed.reason());
+			else
+				symbol = id.orNull();
+			boolean returnsVoid = false;
+			Resolution<ResolvedType> returned = Resolution.of(resolved::getReturnType);
+			if (returned instanceof Resolution.Failed<ResolvedType> failed)
+				transpiler.diagnostics.warning("In MethodCallExpr", failed.reason());
+			else
+				returnsVoid = returned.orNull().isVoid();
+			return new Call(resolved.isStatic(), scope, symbol, returnsVoid);
+		});
+	}
+
+	public static Access access(FieldAccessExpr n, JavaTranspiler transpiler) {
+		return remember(n, ACCESS, UNRESOLVED_ACCESS, transpiler, () -> {
+			Resolution<ResolvedValueDeclaration> resolution = transpiler.resolve(n);
+			if (resolution instanceof Resolution.Failed<ResolvedValueDeclaration> failed) {
+				if (!failed.unsolved()) {
+					transpiler.diagnostics.warning("In FieldAccessExpr", failed.reason());
+					return UNRESOLVED_ACCESS;
+				}
+				// Assume it's a local type instead
+				Resolution<ResolvedType> scope = transpiler.typeOf(n.getScope());
+				if (scope instanceof Resolution.Failed<ResolvedType> unsolved) {
+					transpiler.diagnostics.warning("In unsolved FieldAccessExpr", unsolved.reason());
+					return UNRESOLVED_ACCESS;
+				}
+				return new Access(true, -1, scope.orNull().describe());
+			}
+			ResolvedValueDeclaration value = resolution.orNull();
+			if (value.isField())
+				return new Access(value.asField().isStatic(), transpiler.symbols.id(value.asField()), null);
+			// Types, enum constants and type patterns are accessed statically, while variables, parameters, methods
+			// and the `length` of arrays aren't.
+			return new Access(value.isEnumConstant() || value.isTypePattern() || value.isType(), -1, null);
+		});
+	}
+
+	public static Name name(NameExpr n, JavaTranspiler transpiler) {
+		return remember(n, NAME, UNRESOLVED_NAME, transpiler, () -> {
+			Resolution<ResolvedValueDeclaration> resolution = transpiler.resolve(n);
+			if (resolution instanceof Resolution.Failed<ResolvedValueDeclaration> failed) {
+				transpiler.diagnostics.warning("In NameExpr", failed.reason());
+				return UNRESOLVED_NAME;
+			}
+			ResolvedValueDeclaration resolved = resolution.orNull();
+			if (resolved.isField())
+				return new Name(resolved.asField().declaringType().getId());
+			if (!(resolved instanceof JavaParserParameterDeclaration) && !(resolved instanceof JavaParserVariableDeclaration))
+				transpiler.diagnostics.warning("In NameExpr, unknown resolved value", resolved.getName());
+			return UNRESOLVED_NAME;
+		});
+	}
+
+	/// Forgets the bindings of `root` and of its descendants.
+	public static void forget(Node root) {
+		root.walk(node -> {
+			synchronized (node) {
+				node.removeData(CALL);
+				node.removeData(ACCESS);
+				node.removeData(NAME);
+			}
+		});
+	}
+
+	private static <T> T remember(
+		Node node,
+		DataKey<T> key,
+		T unbound,
+		JavaTranspiler transpiler,
+		Supplier<T> deriver
+	) {
+		synchronized (node) {
+			if (node.containsData(key))
+				return node.getData(key);
+		}
+		if (RENDERING.get()) {
+			transpiler.diagnostics.error("Not bound before rendering", node.toString());
+			return unbound;
+		}
+		T binding = deriver.get();
+		synchronized (node) {
+			node.setData(key, binding);
+		}
+		return binding;
+	}
+}
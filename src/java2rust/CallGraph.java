@@ -0,0 +1,101 @@
+package java2rust;
+
+import java2rust.rust.IRustFunction;
+
+import java.util.*;
+
+/// The graph of calls between functions, as linked by their [java2rust.rust.RustCalls].
+///
+/// Thrown types are propagated from callees to callers over the strongly connected components of the graph, found
+/// with an iterative Tarjan's algorithm. It completes components callees first, so each component gathers the
+/// types of its members and of the completed components they call exactly once, whatever the order of the
+/// functions and however deep or recursive the calls: the propagation is linear in the number of calls.
+public final class CallGraph {
+	private final Map<IRustFunction, Integer> indices = new HashMap<>();
+	private final List<IRustFunction> functions = new ArrayList<>();
+	private final BitSet onStack = new BitSet();
+	private final Deque<Integer> stack = new ArrayDeque<>();
+	private final Deque<Frame> frames = new ArrayDeque<>();
+	private int[] lowlinks = new int[64];
+	private int components;
+
+	/// A function being visited, with the callees left to visit.
+	private record Frame(int index, Iterator<IRustFunction> callees) {}
+
+	private CallGraph() {}
+
+	/// Adds the types thrown by every function transitively called by `roots` to the types thrown by its callers.
+	///
+	/// Returns the number of strongly connected components visited.
+	public static int propagateThrown(Collection<? extends IRustFunction> roots) {
+		CallGraph graph = new CallGraph();
+		for (IRustFunction root : roots)
+			if (!graph.indices.containsKey(root))
+				graph.visit(root);
+		return graph.components;
+	}
+
+	private void visit(IRustFunction root) {
+		push(root);
+		while (!frames.isEmpty()) {
+			Frame frame = frames.peek();
+			if (frame.callees().hasNext()) {
+				IRustFunction callee = frame.callees().next();
+				Integer index = indices.get(callee);
+				if (index == null)
+					push(callee);
+				else if (onStack.get(index))
+					lowlinks[frame.index()] = Math.min(lowlinks[frame.index()], index);
+				continue;
+			}
+
+			frames.pop();
+			if (frames.peek() instanceof Frame caller)
+				lowlinks[caller.index()] = Math.min(lowlinks[caller.index()], lowlinks[frame.index()]);
+			if (lowlinks[frame.index()] == frame.index())
+				complete(frame.index());
+		}
+	}
+
+	private void push(IRustFunction function) {
+		int index = functions.size();
+		functions.add(function);
+		indices.put(function, index);
+		if (index == lowlinks.length)
+			lowlinks = Arrays.copyOf(lowlinks, index * 2);
+		lowlinks[index] = index;
+		stack.push(index);
+		onStack.set(index);
+		frames.push(new Frame(index, function.calls().callees.iterator()));
+	}
+
+	/// Pops the component rooted at `root`, whose callees outside of it are all complete, and shares the union of
+	/// the types thrown by its members and their callees between its members.
+	private void complete(int root) {
+		components++;
+		List<IRustFunction> members = new ArrayList<>();
+		int index;
+		do {
+			index = stack.pop();
+			onStack.clear(index);
+			members.add(functions.get(index));
+		} while (index != root);
+
+		if (members.size() == 1) {
+			IRustFunction function = members.getFirst();
+			for (IRustFunction callee : function.calls().callees)
+				if (callee != function)
+					function.thrown().addAll(callee.thrown());
+			return;
+		}
+
+		Set<String> thrown = new HashSet<>();
+		for (IRustFunction member : members) {
+			thrown.addAll(member.thrown());
+			for (IRustFunction callee : member.calls().callees)
+				thrown.addAll(callee.thrown());
+		}
+		for (IRustFunction member : members)
+			member.thrown().addAll(thrown);
+	}
+}
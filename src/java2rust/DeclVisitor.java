@@ -6,6 +6,7 @@ import com.github.javaparser.ast.body.*;
 import com.github.javaparser.ast.expr.*;
 import com.github.javaparser.ast.stmt.ThrowStmt;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
 import com.github.javaparser.resolution.declarations.ResolvedValueDeclaration;
 import com.github.javaparser.resolution.types.ResolvedType;
 import java2rust.rust.*;
@@ -16,6 +17,8 @@ import java.util.Stack;
 
 public class DeclVisitor extends VoidVisitorAdapter<Object> {
 	public final JavaTranspiler transpiler;
+	/// The package of the unit visited, which keeps the ids of the names and methods it registers.
+	private final RustPackage unit;
 	private final Stack<RustPackage> modules = new Stack<>();
 	private final Stack<RustItem> items = new Stack<>();
 	private final Stack<FieldDeclaration> fields = new Stack<>();
@@ -24,6 +27,7 @@ public class DeclVisitor extends VoidVisitorAdapter<Object> {
 
 	public DeclVisitor(JavaTranspiler transpiler, RustPackage module) {
 		this.transpiler = transpiler;
+		this.unit = module;
 		modules.push(module);
 	}
 
@@ -53,7 +57,7 @@ public class DeclVisitor extends VoidVisitorAdapter<Object> {
 					n.resolve().asClass(),
 					RustVisibility.pub(n.isPublic()));
 		}
-		transpiler.register(item);
+		unit.registered.add(transpiler.register(item));
 
 		items.push(item);
 		super.visit(n, arg);
@@ -64,12 +68,13 @@ public class DeclVisitor extends VoidVisitorAdapter<Object> {
 	public void visit(ConstructorDeclaration n, Object arg) {
 		try {
 			RustConstructor method = items.peek().constructor(n);
-			transpiler.registerName(method.id, method.name);
+			unit.registered.add(transpiler.registerName(method.id, method.name));
 			functions.push(method);
 			super.visit(n, arg);
 			functions.pop();
 		} catch (Throwable e) {
-			System.err.printf("In ConstructorDeclaration: %s\n", e.getLocalizedMessage());
+			transpiler.metrics.increment(Metrics.Counter.FAILURES);
+			transpiler.diagnostics.error("In ConstructorDeclaration", Resolution.describe(e));
 			//TODO: push error method.
 		}
 	}
@@ -77,7 +82,7 @@ public class DeclVisitor extends VoidVisitorAdapter<Object> {
 	@Override
 	public void visit(EnumDeclaration n, Object arg) {
 		RustItem item = modules.peek().enumeration(n);
-		transpiler.register(item);
+		unit.registered.add(transpiler.register(item));
 
 		items.push(item);
 		super.visit(n, arg);
@@ -99,7 +104,8 @@ public class DeclVisitor extends VoidVisitorAdapter<Object> {
 			super.visit(n, arg);
 			functions.pop();
 		} catch (Throwable e) {
-			System.err.printf("In InitializerDeclaration: %s\n", e.getLocalizedMessage());
+			transpiler.metrics.increment(Metrics.Counter.FAILURES);
+			transpiler.diagnostics.error("In InitializerDeclaration", Resolution.describe(e));
 			//TODO: push error method.
 		}
 	}
@@ -110,15 +116,21 @@ public class DeclVisitor extends VoidVisitorAdapter<Object> {
 			Optional<Node> n1 = n.getParentNode();
 			while (n1.isPresent() && !(n1.get() instanceof BodyDeclaration<?>))
 				n1 = n1.get().getParentNode();
-			System.err.printf(
-				"Unhandled method call context: %s\n",
+			transpiler.diagnostics.warning(
+				"Unhandled method call context",
 				n1.map(n2 -> n2.getMetaModel().getTypeName()).orElse("UNKNOWN"));
 			return;
 		}
 		IRustFunction function = functions.peek();
 		if (function == null)
 			return; //TODO: handle lambdas
-		function.calls().addCallee(n);
+		Resolution<ResolvedMethodDeclaration> resolution = transpiler.resolve(n);
+		if (resolution instanceof Resolution.Failed<ResolvedMethodDeclaration> failed) {
+			transpiler.metrics.increment(Metrics.Counter.FAILURES);
+			transpiler.diagnostics.warning("In MethodCallExpr", failed.reason());
+		} else {
+			function.calls().addCallee(resolution.orNull());
+		}
 		super.visit(n, arg);
 	}
 
@@ -126,13 +138,14 @@ public class DeclVisitor extends VoidVisitorAdapter<Object> {
 	public void visit(MethodDeclaration n, Object arg) {
 		try {
 			RustMethod method = items.peek().method(n);
-			transpiler.register(method);
-			transpiler.registerName(method.id, method.name);
+			unit.registered.add(transpiler.register(method));
+			unit.registered.add(transpiler.registerName(method.id, method.name));
 			functions.push(method);
 			super.visit(n, arg);
 			functions.pop();
 		} catch (Throwable e) {
-			System.err.printf("In MethodDeclaration: %s\n", e.getLocalizedMessage());
+			transpiler.metrics.increment(Metrics.Counter.FAILURES);
+			transpiler.diagnostics.error("In MethodDeclaration", Resolution.describe(e));
 			//TODO: push error method.
 		}
 	}
@@ -142,7 +155,13 @@ public class DeclVisitor extends VoidVisitorAdapter<Object> {
 		if (!isMutableScope)
 			return;
 		//TODO: global name metadata? method signature + name
-		ResolvedValueDeclaration resolved = n.resolve();
+		Resolution<ResolvedValueDeclaration> resolution = transpiler.resolve(n);
+		if (resolution instanceof Resolution.Failed<ResolvedValueDeclaration> failed) {
+			transpiler.metrics.increment(Metrics.Counter.FAILURES);
+			transpiler.diagnostics.warning("In NameExpr", failed.reason());
+			return;
+		}
+		ResolvedValueDeclaration resolved = resolution.orNull();
 		if (resolved.isParameter()) {
 			RustParam param = functions.peek().params().java(n.getNameAsString());
 			if (param != null)
@@ -167,11 +186,12 @@ public class DeclVisitor extends VoidVisitorAdapter<Object> {
 	public void visit(ThrowStmt n, Object arg) {
 		super.visit(n, arg);
 		IRustFunction method = functions.peek();
-		try {
-			ResolvedType ty = n.getExpression().calculateResolvedType();
-			method.thrown().add(ty);
-		} catch (Throwable e) {
-			System.err.printf("In ThrowStmt: %s\n", e.getLocalizedMessage());
+		Resolution<ResolvedType> resolution = transpiler.typeOf(n.getExpression());
+		if (resolution instanceof Resolution.Failed<ResolvedType> failed) {
+			transpiler.metrics.increment(Metrics.Counter.FAILURES);
+			transpiler.diagnostics.warning("In ThrowStmt", failed.reason());
+		} else {
+			method.thrown().add(transpiler.interner.intern(resolution.orNull().describe()));
 		}
 	}
 
@@ -187,14 +207,14 @@ public class DeclVisitor extends VoidVisitorAdapter<Object> {
 		}
 		if (fields.peek().isStatic()) {
 			RustStatic field = items.peek().staticField(fields.peek(), n);
-			transpiler.registerName(field.id, items.peek().path() + "::" + field.name);
+			unit.registered.add(transpiler.registerName(field.id, items.peek().path() + "::" + field.name));
 			return;
 		}
 		RustField field = items
 			.peek()
 			.field(n.getNameAsString(), n.getType(), n.getInitializer().orElse(null));
 		String id = "%s.%s".formatted(items.peek().id(), n.getName());
-		transpiler.registerName(id, field.name);
+		unit.registered.add(transpiler.registerName(id, field.name));
 	}
 
 	@Override
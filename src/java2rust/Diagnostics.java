@@ -0,0 +1,161 @@
+package java2rust;
+
+import java.io.PrintStream;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/// The problems met during a run, safe to report from any thread without waiting on the console.
+///
+/// Reporting records an event: it is counted by kind and severity, and only printed the first time its message is
+/// reported, up to a number of distinct messages per kind. Printed messages are queued to a writer thread. Debug and
+/// info messages are dropped when it falls too far behind, so that the threads reporting them never wait, while
+/// warnings and errors wait for it briefly, then are deferred to the summary of every kind which ends the run.
+///
+/// Messages are printed to the standard error stream as it is when written, so that a daemon redirecting it to a
+/// client while serving it reports to that client.
+public final class Diagnostics {
+	/// The number of distinct messages printed per kind, past which messages of that kind are only counted.
+	public static final int MESSAGES_PER_KIND = 100;
+	/// The lines waiting to be printed, by a single writer shared by every instance.
+	private static final BlockingQueue<Runnable> QUEUE = new ArrayBlockingQueue<>(4096);
+	/// How long reporting a warning or an error waits for the writer, in milliseconds, before deferring it.
+	private static final long SEVERE_WAIT = 50;
+
+	static {
+		Thread.ofPlatform().daemon().name("diagnostics").start(Diagnostics::write);
+	}
+
+	public enum Severity {
+		DEBUG,
+		INFO,
+		WARNING,
+		ERROR
+	}
+
+	/// A kind of message reported with a severity.
+	private record Key(String name, Severity severity) {
+		static final Comparator<Key> ORDER = Comparator.comparing(Key::name).thenComparing(Key::severity);
+	}
+
+	/// The occurrences of a kind of message, and the distinct messages printed.
+	private static final class Kind {
+		final LongAdder occurrences = new LongAdder();
+		final Set<String> printed = ConcurrentHashMap.newKeySet();
+	}
+
+	/// The least severe events printed. Less severe events are counted, but neither printed nor summarized.
+	public volatile Severity threshold = Severity.INFO;
+	private final Map<Key, Kind> kinds = new ConcurrentHashMap<>();
+	private final LongAdder dropped = new LongAdder();
+	/// The warnings and errors which the writer fell too far behind to print, printed by the summary instead.
+	private final Queue<String> deferred = new ConcurrentLinkedQueue<>();
+
+	public void debug(String kind, String message) {
+		report(Severity.DEBUG, kind, message);
+	}
+
+	public void info(String kind, String message) {
+		report(Severity.INFO, kind, message);
+	}
+
+	public void warning(String kind, String message) {
+		report(Severity.WARNING, kind, message);
+	}
+
+	public void error(String kind, String message) {
+		report(Severity.ERROR, kind, message);
+	}
+
+	/// Records an event of `kind`, printed as `kind: message` unless it was already or too many messages of that
+	/// kind and severity were.
+	public void report(Severity severity, String kind, String message) {
+		Kind counters = kinds.computeIfAbsent(new Key(kind, severity), _ -> new Kind());
+		counters.occurrences.increment();
+		if (severity.compareTo(threshold) < 0 || counters.printed.size() >= MESSAGES_PER_KIND)
+			return;
+		if (!counters.printed.add(message))
+			return;
+		String line = "%s: %s".formatted(kind, message);
+		Runnable print = () -> System.err.println(line);
+		if (QUEUE.offer(print))
+			return;
+		if (severity.compareTo(Severity.WARNING) < 0) {
+			dropped.increment();
+			return;
+		}
+		try {
+			if (QUEUE.offer(print, SEVERE_WAIT, TimeUnit.MILLISECONDS))
+				return;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		deferred.add(line);
+	}
+
+	/// Returns the number of events of `kind` reported, whatever their severity.
+	public long count(String kind) {
+		long count = 0;
+		for (Map.Entry<Key, Kind> entry : kinds.entrySet())
+			if (entry.getKey().name().equals(kind))
+				count += entry.getValue().occurrences.sum();
+		return count;
+	}
+
+	/// Waits for the messages reported so far to be printed.
+	public void flush() {
+		CountDownLatch done = new CountDownLatch(1);
+		try {
+			QUEUE.put(done::countDown);
+			done.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/// Prints the messages reported so far, then the number of events of every kind printed.
+	public void summarize(PrintStream out) {
+		flush();
+		for (String line; (line = deferred.poll()) != null; )
+			System.err.println(line);
+		Map<Key, Kind> kinds = new TreeMap<>(Key.ORDER);
+		kinds.putAll(this.kinds);
+		kinds.keySet().removeIf(key -> key.severity().compareTo(threshold) < 0);
+		if (kinds.isEmpty())
+			return;
+		out.println("==> Diagnostics");
+		kinds.forEach((key, kind) -> {
+			long occurrences = kind.occurrences.sum();
+			long distinct = kind.printed.size();
+			out.printf("%-8s %8d  %s", key.severity(), occurrences, key.name());
+			if (distinct >= MESSAGES_PER_KIND)
+				out.printf(" (only the first %d messages printed)", distinct);
+			else if (distinct < occurrences)
+				out.printf(" (%d distinct)", distinct);
+			out.println();
+		});
+		if (dropped.sum() > 0)
+			out.printf("%d debug and info messages dropped, as they were reported faster than printed\n", dropped.sum());
+	}
+
+	/// Forgets every event reported so far.
+	public void reset() {
+		flush();
+		kinds.clear();
+		dropped.reset();
+		deferred.clear();
+	}
+
+	private static void write() {
+		try {
+			while (true)
+				QUEUE.take().run();
+		} catch (InterruptedException _) {
+			// The writer runs for as long as the process.
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package java2rust;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/// The fingerprints and dependencies recorded by a previous run into an output directory.
+///
+/// The state is a tab-separated text file: the first line holds the fingerprint of the names registered during
+/// preanalysis, every following line holds a unit path, its fingerprint and the paths of the units it depends on.
+public final class IncrementalState {
+	public static final String FILE = ".java2rust-state";
+
+	public final Path file;
+	/// The fingerprint of the names registered during preanalysis.
+	public String names = "";
+	/// The recorded units, by path.
+	public final Map<String, Unit> units = new TreeMap<>();
+
+	public IncrementalState(Path file) {
+		this.file = file;
+	}
+
+	/// A recorded unit with the fingerprint of its source and the paths of the units it depends on.
+	public record Unit(String fingerprint, Set<String> dependencies) {}
+
+	/// Loads the state recorded in `output`, or an empty state if there is none.
+	public static IncrementalState load(Path output) {
+		IncrementalState state = new IncrementalState(output.resolve(FILE));
+		if (!Files.exists(state.file))
+			return state;
+		try {
+			List<String> lines = Files.readAllLines(state.file);
+			if (lines.isEmpty())
+				return state;
+			state.names = lines.getFirst();
+			for (String line : lines.subList(1, lines.size())) {
+				String[] fields = line.split("\t");
+				if (fields.length < 2)
+					continue;
+				Set<String> dependencies = new TreeSet<>(Arrays.asList(fields).subList(2, fields.length));
+				state.units.put(fields[0], new Unit(fields[1], dependencies));
+			}
+		} catch (IOException e) {
+			System.err.printf("Couldn't read incremental state: %s\n", e.getLocalizedMessage());
+			state.names = "";
+			state.units.clear();
+		}
+		return state;
+	}
+
+	public void save() throws IOException {
+		List<String> lines = new ArrayList<>(units.size() + 1);
+		lines.add(names);
+		units.forEach((path, unit) -> {
+			StringJoiner line = new StringJoiner("\t");
+			line.add(path).add(unit.fingerprint());
+			unit.dependencies().forEach(line::add);
+			lines.add(line.toString());
+		});
+		Files.createDirectories(file.getParent());
+		Files.write(file, lines);
+	}
+
+	/// Returns the paths of the units depending on each recorded unit.
+	public Map<String, Set<String>> dependents() {
+		Map<String, Set<String>> dependents = new HashMap<>();
+		units.forEach((path, unit) -> {
+			for (String dependency : unit.dependencies())
+				dependents.computeIfAbsent(dependency, _ -> new HashSet<>()).add(path);
+		});
+		return dependents;
+	}
+}
@@ -0,0 +1,72 @@
+package java2rust;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/// A pool of canonical strings, so that the names and type descriptions of the model which are built apart but
+/// equal, such as `i32`, `self` or the path of a common type, share a single instance.
+///
+/// Only strings which repeat are worth interning: a string unique to a declaration, such as the signature of a
+/// method, only grows the pool. Each transpiler has its own pool, cleared when it is restored to a snapshot so that a
+/// daemon doesn't hold the strings of every past run.
+public final class Interner {
+	private final Map<String, String> pool = new ConcurrentHashMap<>();
+	private final LongAdder deduplicated = new LongAdder();
+	private final LongAdder bytesSaved = new LongAdder();
+
+	/// Returns the canonical instance of `s`, which is `s` itself if it is the first of its value.
+	public String intern(String s) {
+		String canonical = pool.putIfAbsent(s, s);
+		if (canonical == null)
+			return s;
+		if (canonical != s) {
+			deduplicated.increment();
+			bytesSaved.add(sizeOf(s));
+		}
+		return canonical;
+	}
+
+	/// Empties the pool and resets its counters. Strings interned so far stay shared by the parts of the model
+	/// holding them.
+	public void clear() {
+		pool.clear();
+		deduplicated.reset();
+		bytesSaved.reset();
+	}
+
+	/// Returns the number of distinct strings in the pool.
+	public int size() {
+		return pool.size();
+	}
+
+	/// Returns the number of duplicates replaced by their canonical instance.
+	public long deduplicated() {
+		return deduplicated.sum();
+	}
+
+	/// Returns an estimate of the heap freed by the duplicates replaced, provided nothing else holds them.
+	public long bytesSaved() {
+		return bytesSaved.sum();
+	}
+
+	/// Adds the state of the pool to the counters of `metrics`.
+	public void report(Metrics metrics) {
+		metrics.add(Metrics.Counter.STRINGS_INTERNED, size());
+		metrics.add(Metrics.Counter.STRINGS_DEDUPLICATED, deduplicated());
+		metrics.add(Metrics.Counter.STRING_BYTES_SAVED, bytesSaved());
+	}
+
+	/// Estimates the retained size of `s` with compressed pointers: a 24 bytes string and its array, holding a byte
+	/// per character of Latin-1 strings and two otherwise, after a 16 bytes header and padded to 8 bytes.
+	static long sizeOf(String s) {
+		int bytesPerChar = 1;
+		for (int i = 0; i < s.length(); i++) {
+			if (s.charAt(i) > 0xFF) {
+				bytesPerChar = 2;
+				break;
+			}
+		}
+		return 24 + ((16L + (long) s.length() * bytesPerChar + 7) & ~7);
+	}
+}
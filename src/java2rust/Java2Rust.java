@@ -2,7 +2,10 @@ package java2rust;
 
 import com.github.javaparser.ParserConfiguration;
 import com.github.javaparser.StaticJavaParser;
-import org.apache.commons.lang3.ArrayUtils;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 public class Java2Rust {
@@ -34,52 +37,127 @@ public class Java2Rust {
 	}
 	 */
 
+	/// Rust keywords, which are escaped as raw identifiers when used as names. Java keywords are left out, as they
+	/// can't be names.
+	private static final Set<String> KEYWORDS = Set.of(
+		"as", "async", "await", "become", "box", "dyn", "fn", "gen", "impl", "in", "let", "loop", "macro", "match",
+		"mod", "move", "mut", "override", "priv", "pub", "ref", "struct", "trait", "try", "type", "typeof", "unsafe",
+		"unsized", "use", "virtual", "where", "yield");
+	/// Rust keywords which can't be raw identifiers, and are suffixed with an underscore instead.
+	private static final Set<String> PATH_KEYWORDS = Set.of("crate", "self", "Self", "super");
+
+	/// The number of conversions each memo holds at most, beyond which it is emptied, so that names repeat enough
+	/// to be found there while the memos don't grow with every distinct name of the process.
+	static final int MEMO_CAPACITY = 1 << 14;
+	/// The conversions made recently, by Java name.
+	private static final Map<String, String> IDENTIFIERS = new ConcurrentHashMap<>();
+	private static final Map<String, String> RUST_NAMES = new ConcurrentHashMap<>();
+
+	/// Returns the Rust name of a Java identifier found in a body, such as a variable: in snake_case if it starts
+	/// with a lowercase letter, and escaped if it is a Rust keyword.
 	public static String identifier(String java) {
-		if (Character.isLowerCase(java.charAt(0))) {
-			StringBuilder sb = new StringBuilder();
-			for (Character c : java.toCharArray()) {
-				if (Character.isUpperCase(c)) {
-					sb.append("_").append(Character.toLowerCase(c));
-				} else {
-					sb.append(c);
-				}
-			}
-			return sb.toString();
-		}
-		return java;
+		String rust = IDENTIFIERS.get(java);
+		if (rust == null)
+			rust = memoize(IDENTIFIERS, java, escape(lowerCamelCaseToSnakeCase(java)));
+		return rust;
 	}
 
-	public static String pascalCaseToSnakeCase(String java) {
-		StringBuilder sb = new StringBuilder();
-		Character[] chars = ArrayUtils.toObject(java.toCharArray());
-		int i = 0;
-		for (Character c : chars) {
+	/// Returns the Rust name of a Java field, parameter, method or package: in snake_case, and escaped if it is a
+	/// Rust keyword.
+	public static String rustName(String java) {
+		String rust = RUST_NAMES.get(java);
+		if (rust == null)
+			rust = memoize(RUST_NAMES, java, escape(camelCaseToSnakeCase(java)));
+		return rust;
+	}
+
+	/// Adds a conversion to `memo`, emptying it first once full, and returns the conversion it holds for `java`.
+	private static String memoize(Map<String, String> memo, String java, String rust) {
+		if (memo.size() >= MEMO_CAPACITY)
+			memo.clear();
+		String previous = memo.putIfAbsent(java, rust);
+		return previous == null ? rust : previous;
+	}
+
+	/// Escapes `identifier` if it is a Rust keyword, as a raw identifier when possible.
+	public static String escape(String identifier) {
+		if (KEYWORDS.contains(identifier))
+			return "r#" + identifier;
+		if (PATH_KEYWORDS.contains(identifier))
+			return identifier + "_";
+		return identifier;
+	}
+
+	/// Returns `identifier` without the prefix of raw identifiers, as in file names.
+	public static String unescape(String identifier) {
+		return identifier.startsWith("r#") ? identifier.substring(2) : identifier;
+	}
+
+	/// Separates every capital of a name starting with a lowercase letter, as in `getURL` to `get_u_r_l`.
+	private static String lowerCamelCaseToSnakeCase(String java) {
+		int length = java.length();
+		if (length == 0 || !Character.isLowerCase(java.charAt(0)))
+			return java;
+		int first = firstUpperCase(java);
+		if (first == length)
+			return java;
+
+		char[] chars = new char[length * 2];
+		java.getChars(0, first, chars, 0);
+		int n = first;
+		for (int i = first; i < length; i++) {
+			char c = java.charAt(i);
 			if (Character.isUpperCase(c)) {
-				if (!sb.isEmpty() && !Character.isUpperCase(ArrayUtils.get(chars, i + 1, '\0')))
-					sb.append('_');
-				sb.append(Character.toLowerCase(c));
+				chars[n++] = '_';
+				chars[n++] = Character.toLowerCase(c);
 			} else {
-				sb.append(c);
+				chars[n++] = c;
 			}
-			i++;
 		}
-		return sb.toString();
+		return new String(chars, 0, n);
 	}
 
+	/// Converts `java` to snake_case, keeping runs of capitals together: `GLFWErrorCapture` becomes
+	/// `glfw_error_capture`. A capital ending the name is separated as well, so `getX` becomes `get_x`.
+	public static String pascalCaseToSnakeCase(String java) {
+		return snakeCase(java, true);
+	}
+
+	/// Converts `java` to snake_case, keeping runs of capitals together: `GLFWErrorCapture` becomes
+	/// `glfw_error_capture`. A capital ending the name is kept with the letters before it, so `getX` becomes `getx`.
 	public static String camelCaseToSnakeCase(String java) {
-		StringBuilder sb = new StringBuilder();
-		Character[] chars = ArrayUtils.toObject(java.toCharArray());
-		int i = 0;
-		for (Character c : chars) {
+		return snakeCase(java, false);
+	}
+
+	/// Converts `java` to snake_case in a single pass over its characters. A capital is separated from what precedes
+	/// it unless it is followed by another capital, or ends the name and `separateLast` is false.
+	private static String snakeCase(String java, boolean separateLast) {
+		int length = java.length();
+		int first = firstUpperCase(java);
+		if (first == length)
+			return java;
+
+		char[] chars = new char[length * 2];
+		java.getChars(0, first, chars, 0);
+		int n = first;
+		for (int i = first; i < length; i++) {
+			char c = java.charAt(i);
 			if (Character.isUpperCase(c)) {
-				if (!sb.isEmpty() && !Character.isUpperCase(ArrayUtils.get(chars, i + 1, 'A')))
-					sb.append('_');
-				sb.append(Character.toLowerCase(c));
+				boolean beforeUpperCase = i + 1 < length ? Character.isUpperCase(java.charAt(i + 1)) : !separateLast;
+				if (n > 0 && !beforeUpperCase)
+					chars[n++] = '_';
+				chars[n++] = Character.toLowerCase(c);
 			} else {
-				sb.append(c);
+				chars[n++] = c;
 			}
-			i++;
 		}
-		return sb.toString();
+		return new String(chars, 0, n);
+	}
+
+	private static int firstUpperCase(String java) {
+		int i = 0;
+		while (i < java.length() && !Character.isUpperCase(java.charAt(i)))
+			i++;
+		return i;
 	}
-}
\ No newline at end of file
+}
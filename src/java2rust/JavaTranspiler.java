@@ -1,21 +1,33 @@
 package java2rust;
 
+import com.github.javaparser.ParserConfiguration;
 import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.PackageDeclaration;
 import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.FieldAccessExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
 import com.github.javaparser.ast.stmt.Statement;
 import com.github.javaparser.ast.type.Type;
 import com.github.javaparser.quality.NotNull;
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.declarations.ResolvedFieldDeclaration;
 import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
 import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedValueDeclaration;
 import com.github.javaparser.resolution.types.ResolvedType;
 import com.github.javaparser.symbolsolver.JavaSymbolSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.JarTypeSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
 import com.github.javaparser.utils.SourceZip;
 import java2rust.rust.*;
+import javaparser.ParseCache;
+import javaparser.RoutingTypeSolver;
 import javaparser.SourceZipTypeSolver;
 import org.apache.commons.io.FilenameUtils;
 import org.jspecify.annotations.NonNull;
@@ -27,22 +39,69 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.function.Supplier;
-import java.util.function.UnaryOperator;
-
-public final class JavaTranspiler {
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/// Transpiles Java crates to Rust crates, on a pool of threads of its own which is shut down once closed.
+public final class JavaTranspiler implements AutoCloseable {
+	/// The number of parsed files the solver of a source directory caches when streaming.
+	public static final int STREAMING_CACHE_SIZE = 1024;
 	public final List<RustJar> crates = new ArrayList<>();
 	public final JavaSymbolSolver solver;
-	private final CombinedTypeSolver solvers = new CombinedTypeSolver();
+	/// The pool on which source files are parsed and modules are written, and on which the bodies of functions are
+	/// rendered in parallel mode. Everything else is analyzed on the calling thread, as the caches of the symbol
+	/// solver are shared and not thread-safe.
+	public final ForkJoinPool pool;
+	/// Whether the bodies of functions are rendered as concurrent tasks on the pool, once their nodes are bound by
+	/// [Bindings] on the calling thread.
+	public boolean parallelAnalysis;
+	/// Whether crates are analyzed as they are generated by [#stream(RustJar, Path)], which releases the units of
+	/// each module once written, rather than by [#analyze()] beforehand.
+	public boolean streaming;
+	/// Whether the types each unit refers to are collected once it is analyzed, so that incremental runs can tell
+	/// which units depend on a changed one.
+	public boolean trackReferences;
+	/// The store to which the names and thrown types of streamed crates are moved once generated, if any.
+	public @Nullable SpillStore spill;
+	/// The cache of parsed units to consult before parsing dependencies, if any.
+	public @Nullable ParseCache cache;
+	public final Metrics metrics = new Metrics();
+	/// The pool of the names and type descriptions of the model.
+	public final Interner interner = new Interner();
+	/// The problems met while transpiling, printed without holding up the threads reporting them.
+	public final Diagnostics diagnostics = new Diagnostics();
+	public final ResolutionCache resolutions = new ResolutionCache(ResolutionCache.DEFAULT_CAPACITY, metrics);
+	private final RoutingTypeSolver solvers = new RoutingTypeSolver();
 	private final Set<File> directories = new HashSet<>();
-	private final HashMap<String, String> names = new HashMap<>();
-	private final Set<String> errors = new HashSet<>();
-	private final Map<String, RustMethod> methods = new HashMap<>();
+	/// The ids of the declarations registered or referred to, by which names and methods are indexed.
+	public final SymbolTable symbols = new SymbolTable();
+	/// Whether a name was registered under an id without a dot, which simple names may be looked up as.
+	private volatile boolean simpleNames;
+	private final SymbolTable.Values<String> names = new SymbolTable.Values<>();
+	private final SymbolTable.Values<RustMethod> methods = new SymbolTable.Values<>();
+	/// The solver of each source directory, by path.
+	private final Map<Path, TypeSolver> sourceSolvers = new HashMap<>();
+	/// The number of crates analyzed before the last snapshot, which are never analyzed again.
+	private int settled;
 
 	public JavaTranspiler() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	public JavaTranspiler(int parallelism) {
+		this.pool = new ForkJoinPool(parallelism);
 		this.solver = new JavaSymbolSolver(solvers);
-		solvers.setExceptionHandler(CombinedTypeSolver.ExceptionHandlers.IGNORE_ALL);
-		solvers.add(new ReflectionTypeSolver());
+		// The reflection solver only solves types of the JRE.
+		solvers.add(new ReflectionTypeSolver(), List.of("java", "javax"));
+	}
+
+	/// Shuts the pool down, letting the tasks already submitted complete.
+	@Override
+	public void close() {
+		pool.shutdown();
 	}
 
 	public void addMavenDependency(String maven) throws Exception {
@@ -59,7 +118,8 @@ public final class JavaTranspiler {
 			.toRealPath();
 
 		if (Files.exists(sources)) {
-			addSourceZip(maven, components[1], sources);
+			Path index = resolved.resolve(components[1] + "-" + components[2] + "-sources.java2rust-index");
+			addSourceZip(maven, components[1], sources, index);
 			return;
 		}
 		System.out.println("\tCould not locate sources jar");
@@ -68,25 +128,40 @@ public final class JavaTranspiler {
 		if (!Files.exists(jar))
 			throw new Exception("Could not locate '%s' at '%s'".formatted(maven, jar));
 		System.out.println("\tRegistered jar");
-		solvers.add(new JarTypeSolver(jar));
+		JarTypeSolver solver = new JarTypeSolver(jar);
+		solvers.add(solver, RoutingTypeSolver.packagesOf(solver.getKnownClasses()));
 	}
 
 	public void addSourceZip(String id, String name, Path path) throws IOException {
+		addSourceZip(id, name, path, null);
+	}
+
+	/// Adds a sources jar, persisting the index of its types to `index` so later runs skip indexing it.
+	public void addSourceZip(String id, String name, Path path, @Nullable Path index) throws IOException {
 		SourceZip zip = new SourceZip(path, StaticJavaParser.getParserConfiguration());
-		SourceZipTypeSolver solver = new SourceZipTypeSolver(zip);
-		solvers.add(solver);
+		SourceZipTypeSolver solver = new SourceZipTypeSolver(zip, cache, index);
+		addSolver(solver, solver.packages());
 
-		System.out.println("\tParsing sources jar...");
+		System.out.println("\tIndexing sources jar...");
 		solver.parseIfNecessary();
 		for (Path file : solver.paths)
-			System.out.printf("\t%s\n", file);
-		System.out.printf("\tParsed %s source files%n", solver.paths.size());
-		System.out.printf("\tRegistered %s types%n", solver.types.size());
+			diagnostics.debug("Indexed source file", file.toString());
+		System.out.printf("\tIndexed %s source files%n", solver.paths.size());
+		System.out.printf("\tRegistered %s types%n", solver.index.size());
 
-		RustJar jar = new RustJar(id, name, zip);
+		RustJar jar = new RustJar(id, name, solver);
+		metrics.add(Metrics.Counter.UNITS_PARSED, jar.units.size());
 		addJar(jar);
 	}
 
+	/// Adds a solver routed to the given packages, or to every name if it has none.
+	private void addSolver(TypeSolver solver, Set<String> packages) {
+		if (packages.isEmpty())
+			solvers.add(solver);
+		else
+			solvers.add(solver, packages);
+	}
+
 	public void addJar(RustJar jar) {
 		//TODO: ensure preliminary visits are made?
 		crates.add(jar);
@@ -104,36 +179,211 @@ public final class JavaTranspiler {
 		addJar(jar);
 		if (directories.contains(src))
 			return;
-		if (!addItem(src, src, jar, lib))
+		List<RustJar.Source> sources = new ArrayList<>();
+		if (!addItem(src, src, sources, lib))
 			return;
-		solvers.add(new JavaParserTypeSolver(src));
+		jar.addAll(sources, pool);
+		metrics.add(Metrics.Counter.UNITS_PARSED, jar.units.size());
+		metrics.add(Metrics.Counter.UNITS_FAILED, sources.size() - jar.units.size());
+		TypeSolver solver = sourceSolver(src.toPath());
+		sourceSolvers.put(src.toPath(), solver);
+		addSolver(solver, packagesOf(jar));
 		System.out.printf("\tParsed %s source files%n", jar.units.size());
 	}
 
-	public void register(RustMethod method) {
-		methods.put(method.resolved.getQualifiedSignature(), method);
+	/// Returns a solver for the types of a source directory, which caches a bounded number of parsed files when
+	/// streaming, as it would otherwise hold every unit released.
+	private TypeSolver sourceSolver(Path src) {
+		if (!streaming)
+			return new JavaParserTypeSolver(src);
+		return new JavaParserTypeSolver(src, new ParserConfiguration(), STREAMING_CACHE_SIZE);
+	}
+
+	/// Unregisters the functions of a package being discarded from the callers of their callees.
+	private static void detach(RustPackage pkg) {
+		pkg.items().stream().flatMap(JavaTranspiler::functions).forEach(function -> function.calls().detach());
+	}
+
+	/// Parses a source file again into a new unit of `jar`, or returns `null` if it can't be read.
+	private @Nullable RustUnit reparse(RustJar jar, RustPackage pkg, Path path) {
+		try {
+			RustUnit unit = new RustUnit(jar, pkg, path);
+			jar.units.add(unit);
+			metrics.increment(Metrics.Counter.UNITS_PARSED);
+			return unit;
+		} catch (IOException e) {
+			System.err.printf("Couldn't parse %s: %s\n", path, e.getLocalizedMessage());
+			return null;
+		}
+	}
+
+	/// Returns `unit`, parsed again in its place if its source was released, or `null` if it can't be read.
+	private @Nullable RustUnit parsed(RustUnit unit) {
+		if (unit.java != null)
+			return unit;
+		RustUnit parsed = reparse(unit.jar, unit.pkg, unit.path);
+		if (parsed != null)
+			unit.jar.units.remove(unit);
+		return parsed;
+	}
+
+	/// Returns the packages declared by the units of a jar of sources, units without a package declaring
+	/// [RoutingTypeSolver#DEFAULT_PACKAGE]. Units released or which couldn't be parsed are assumed to declare the
+	/// package named by their directory.
+	private static Set<String> packagesOf(RustJar jar) {
+		Set<String> packages = new HashSet<>();
+		for (RustUnit unit : jar.units) {
+			if (unit.java != null && unit.java.getResult().orElse(null) instanceof CompilationUnit java)
+				packages.add(java
+					.getPackageDeclaration()
+					.map(PackageDeclaration::getNameAsString)
+					.orElse(RoutingTypeSolver.DEFAULT_PACKAGE));
+			else
+				packages.add(jar.path.relativize(unit.path.getParent()).toString().replace(File.separatorChar, '.'));
+		}
+		return packages;
+	}
+
+	/// Brings the crates of sources up to date with changed, created or deleted files and directories.
+	///
+	/// Changed and created files are parsed again, then their units are preanalyzed and analyzed again along with
+	/// the units transitively depending on them, as their calls and references must be resolved again. Every other package is
+	/// marked up-to-date, so that only the modules affected are generated again. Returns the affected packages.
+	public Set<RustPackage> update(Collection<Path> paths) {
+		Map<RustPackage, RustUnit> units = new HashMap<>();
+		for (RustJar jar : pending())
+			for (RustUnit unit : jar.units)
+				units.put(unit.pkg, unit);
+
+		Set<RustUnit> changed = new HashSet<>();
+		Set<RustPackage> touched = new HashSet<>();
+		Set<RustJar> jars = new HashSet<>();
+		for (Path path : paths) {
+			RustJar jar = pending()
+				.stream()
+				.filter(j -> sourceSolvers.containsKey(j.path) && path.startsWith(j.path))
+				.findFirst()
+				.orElse(null);
+			if (jar == null)
+				continue;
+			jars.add(jar);
+			List<RustUnit> matching = jar.units.stream().filter(unit -> unit.path.startsWith(path)).toList();
+			if (matching.isEmpty() && Files.isRegularFile(path) && path.toString().endsWith(".java")) {
+				RustPackage pkg = jar.lib;
+				for (Path trunk : jar.path.relativize(path))
+					pkg = pkg.submodule(FilenameUtils.removeExtension(trunk.toString()), RustVisibility.PUB);
+				touched.add(pkg.parent());
+				if (reparse(jar, pkg, path) instanceof RustUnit parsed) {
+					units.put(pkg, parsed);
+					changed.add(parsed);
+				} else {
+					pkg.delete();
+				}
+				continue;
+			}
+			for (RustUnit unit : matching) {
+				// Already parsed again for a directory containing it.
+				if (changed.contains(unit))
+					continue;
+				if (Files.isRegularFile(unit.path)) {
+					if (reparse(jar, unit.pkg, unit.path) instanceof RustUnit parsed) {
+						jar.units.remove(unit);
+						units.put(unit.pkg, parsed);
+						changed.add(parsed);
+					}
+					continue;
+				}
+				// Deleted, along with the directories left without sources.
+				jar.units.remove(unit);
+				units.remove(unit.pkg);
+				detach(unit.pkg);
+				unregister(unit.pkg);
+				unit.pkg.clear();
+				unit.pkg.delete();
+				RustPackage parent = unit.pkg.parent();
+				while (parent.parent() != null && parent.submodules().isEmpty() && !units.containsKey(parent)) {
+					parent.delete();
+					parent = parent.parent();
+				}
+				touched.add(parent);
+				changed.add(unit);
+			}
+		}
+
+		for (RustJar jar : jars) {
+			TypeSolver solver = sourceSolver(jar.path);
+			solvers.replace(sourceSolvers.put(jar.path, solver), solver, packagesOf(jar));
+		}
+		resolutions.clear();
+		JavaParserFacade.clearInstances();
+
+		// The units depending on each unit, from the calls and references resolved by their last analysis.
+		Map<RustUnit, Set<RustUnit>> dependents = new HashMap<>();
+		dependencies(units).forEach((unit, dependencies) -> {
+			for (RustUnit dependency : dependencies)
+				dependents.computeIfAbsent(dependency, _ -> new HashSet<>()).add(unit);
+		});
+		Set<RustUnit> visited = new HashSet<>();
+		Deque<RustUnit> stale = new ArrayDeque<>(changed);
+		while (!stale.isEmpty()) {
+			RustUnit unit = stale.pop();
+			if (visited.add(unit))
+				stale.addAll(dependents.getOrDefault(unit, Set.of()));
+		}
+		List<RustUnit> affected = units
+			.values()
+			.stream()
+			.filter(visited::contains)
+			.sorted(Comparator.comparing(unit -> unit.path))
+			.map(this::parsed)
+			.filter(Objects::nonNull)
+			.toList();
+
+		for (RustUnit unit : affected) {
+			unit.java.getResult().ifPresent(ResolutionTable::forget);
+			unit.java.getResult().ifPresent(Bindings::forget);
+			detach(unit.pkg);
+			unregister(unit.pkg);
+			unit.pkg.clear();
+		}
+		for (RustUnit unit : affected)
+			unit.preanalyze(this);
+		link(affected.stream().map(unit -> unit.pkg).toList());
+		analyze(affected.stream().map(unit -> unit.pkg).distinct().toList());
+		for (RustUnit unit : affected) {
+			unit.reference(this);
+			touched.add(unit.pkg);
+		}
+
+		touched.remove(null);
+		for (RustJar jar : crates)
+			jar.packages().forEach(pkg -> pkg.upToDate = !touched.contains(pkg));
+		return touched;
+	}
+
+	public int register(RustMethod method) {
+		int id = symbols.id(method.resolved);
+		methods.put(id, method);
+		metrics.increment(Metrics.Counter.METHODS_REGISTERED);
+		return id;
 	}
 
-	public @Nullable RustMethod method(@NotNull String qualifiedSignature) {
-		RustMethod m = methods.get(qualifiedSignature);
-		if (m == null && errors.add(qualifiedSignature))
-			System.err.printf("Unknown method (not registered) '%s'\n".formatted(qualifiedSignature));
-		return m;
+	/// Unregisters the names and methods registered by preanalyzing the unit of `pkg`.
+	private void unregister(RustPackage pkg) {
+		for (int id : pkg.registered) {
+			names.remove(id);
+			methods.remove(id);
+		}
+		pkg.registered.clear();
 	}
 
 	public @Nullable RustMethod method(@NotNull ResolvedMethodDeclaration resolved) {
-		return methods.get(resolved.getQualifiedSignature());
+		return methods.get(symbols.id(resolved));
 	}
 
 	public @NonNull RustMethod method(@NotNull MethodDeclaration decl) {
 		ResolvedMethodDeclaration resolved = decl.resolve();
-		String signature = resolved.getQualifiedSignature();
-		RustMethod method = methods.get(signature);
-		if (method == null) {
-			method = new RustMethod(null, decl, resolved);
-			methods.put(signature, method);
-		}
-		return method;
+		return methods.computeIfAbsent(symbols.id(resolved), () -> new RustMethod(null, decl, resolved));
 	}
 
 	public long numberOfTasksToAnalyze() {
@@ -141,46 +391,383 @@ public final class JavaTranspiler {
 	}
 
 	public void preanalyze() {
-		for (RustJar jar : crates)
+		for (RustJar jar : pending())
 			jar.preanalyze(this);
 	}
 
 	public void analyze() {
+		link();
+		if (parallelAnalysis) {
+			List<RustPackage> packages = pending().stream().flatMap(RustJar::packages).toList();
+			for (RustPackage pkg : packages)
+				if (pkg.upToDate)
+					pkg.analyzeWithoutItems(this);
+			analyze(packages.stream().filter(pkg -> !pkg.upToDate).toList());
+		} else {
+			for (RustJar jar : pending())
+				jar.analyze(this);
+		}
+		if (trackReferences)
+			for (RustJar jar : pending())
+				for (RustUnit unit : jar.units)
+					if (!unit.pkg.upToDate)
+						unit.reference(this);
+	}
+
+	/// Analyzes `packages` and their items, leaving their subpackages to the caller.
+	///
+	/// In parallel mode, everything but the bodies of functions is analyzed on the calling thread, which binds the
+	/// nodes of the bodies as well. The bodies are then rendered as tasks on the pool, which read the bindings but
+	/// never resolve anything themselves.
+	public void analyze(List<RustPackage> packages) {
+		if (!parallelAnalysis) {
+			for (RustPackage pkg : packages)
+				pkg.analyzeWithoutSubpackages(this);
+			return;
+		}
+		List<IRustFunction> functions = new ArrayList<>();
+		for (RustPackage pkg : packages) {
+			pkg.analyzeDeclarations(this);
+			functions.addAll(pkg.methods);
+			analyzeDeclarations(pkg.items(), functions);
+		}
+		for (IRustFunction function : functions)
+			if (function.body() instanceof Node body)
+				Bindings.bind(body, this);
+		List<ForkJoinTask<?>> tasks = functions
+			.stream()
+			.<ForkJoinTask<?>>map(function -> pool.submit(() -> Bindings.render(() -> function.render(this))))
+			.toList();
+		for (ForkJoinTask<?> task : tasks)
+			task.join();
+	}
+
+	/// Analyzes the declarations of `items` and of the items of their local modules, collecting their functions into
+	/// `functions`.
+	private void analyzeDeclarations(List<RustItem> items, List<IRustFunction> functions) {
+		for (RustItem item : items) {
+			item.analyzeDeclarations(this);
+			functions.addAll(item.methods);
+			if (item instanceof RustPackage mod)
+				analyzeDeclarations(mod.items(), functions);
+		}
+	}
+
+	/// Links the calls of the pending crates and propagates thrown types, ahead of streaming them.
+	public void link() {
+		link(pending().stream().flatMap(RustJar::packages).toList());
+	}
+
+	/// Writes `jar` under `output`. A pending crate is analyzed module by module as it is written, and the units of
+	/// each module released once written, so that the heap holds the declarations of every crate but the bodies of
+	/// only the module being written.
+	///
+	/// The units of the crates streamed so far which their solvers parsed again are released as well, along with
+	/// the types cached by the symbol solver. A crate which can't be spilled is kept in the heap, and reported as an
+	/// error rather than thrown, as it was written.
+	public void stream(RustJar jar, Path output) throws IOException {
+		List<RustJar> pending = pending();
+		int index = pending.indexOf(jar);
+		if (index < 0) {
+			jar.generate(output, metrics, pool);
+			return;
+		}
+		jar.stream(output, this);
+		for (RustJar streamed : pending.subList(0, index + 1))
+			streamed.releaseSolver();
+		JavaParserFacade.clearInstances();
+		if (spill == null)
+			return;
+		try {
+			spill(jar, spill);
+		} catch (IOException e) {
+			diagnostics.error("Couldn't spill crate", "%s: %s".formatted(jar.name, e.getLocalizedMessage()));
+		}
+	}
+
+	/// Moves the names registered by the units of `jar`, which is generated, and the thrown types of its methods to
+	/// `store`, then drops the items of `jar` and the keys of its symbols. Later crates find what they look up in the
+	/// store instead, by key.
+	///
+	/// Calls must be linked and thrown types propagated beforehand, as the functions of `jar` are unlinked from the
+	/// call graph.
+	private void spill(RustJar jar, SpillStore store) throws IOException {
+		long size = store.size();
+		Set<Integer> registered = jar.packages().flatMap(pkg -> pkg.registered.stream()).collect(Collectors.toSet());
+		for (int id : registered) {
+			if (names.get(id) instanceof String name && symbols.key(id) instanceof String key) {
+				store.putName(key, name);
+				metrics.increment(Metrics.Counter.NAMES_SPILLED);
+			}
+		}
+		Set<IRustFunction> functions = jar
+			.packages()
+			.flatMap(pkg -> pkg.items().stream())
+			.flatMap(JavaTranspiler::functions)
+			.collect(Collectors.toSet());
+		for (IRustFunction function : functions) {
+			if (function instanceof RustMethod method) {
+				store.putThrown(method.id, method.thrown());
+				metrics.increment(Metrics.Counter.METHODS_SPILLED);
+			}
+		}
+		store.flush();
+		metrics.add(Metrics.Counter.BYTES_SPILLED, store.size() - size);
+
+		for (int id : registered) {
+			names.remove(id);
+			symbols.drop(id);
+		}
+		methods.removeIf(functions::contains);
+		for (IRustFunction function : functions)
+			function.calls().unlink();
+		jar.packages().forEach(pkg -> {
+			pkg.clear();
+			pkg.registered.clear();
+		});
+		jar.units.clear();
+	}
+
+	/// Links the calls of every function of `packages`, then propagates thrown types through the call graph.
+	///
+	/// Functions of up-to-date packages are linked as well, as the types they throw reach their callers.
+	private void link(List<RustPackage> packages) {
+		List<IRustFunction> functions = packages
+			.stream()
+			.flatMap(pkg -> pkg.items().stream())
+			.flatMap(JavaTranspiler::functions)
+			.toList();
+		for (IRustFunction function : functions)
+			function.analyzeCalls(this);
+		try (var _ = metrics.phase("propagate thrown")) {
+			CallGraph.propagateThrown(functions);
+		}
+	}
+
+	/// Returns the functions of an item, including those of the items of a local module.
+	private static Stream<IRustFunction> functions(RustItem item) {
+		if (item instanceof RustPackage mod)
+			return Stream.concat(item.methods.stream(), mod.items().stream().flatMap(JavaTranspiler::functions));
+		return item.methods.stream();
+	}
+
+	/// Returns the crates added since the last snapshot, which are yet to be preanalyzed and analyzed.
+	private List<RustJar> pending() {
+		return crates.subList(settled, crates.size());
+	}
+
+	/// The state of a transpiler whose crates are analyzed, such as after loading its dependencies.
+	public record Snapshot(
+		int crates,
+		int solvers,
+		Set<File> directories,
+		SymbolTable.Values<String> names,
+		SymbolTable.Values<RustMethod> methods
+	) {}
+
+	/// Captures the current state, marking every crate as analyzed so that later analyses skip them.
+	public Snapshot snapshot() {
+		settled = crates.size();
+		return new Snapshot(
+			crates.size(),
+			solvers.size(),
+			Set.copyOf(directories),
+			names.copy(),
+			methods.copy());
+	}
+
+	/// Restores the state captured by `snapshot`, dropping every crate, solver, name and method added since, along
+	/// with the resolutions which may refer to them.
+	public void restore(Snapshot snapshot) {
+		crates.subList(snapshot.crates(), crates.size()).clear();
+		settled = snapshot.crates();
+		solvers.truncate(snapshot.solvers());
+		directories.retainAll(snapshot.directories());
+		sourceSolvers.keySet().retainAll(crates.stream().map(jar -> jar.path).toList());
+		names.set(snapshot.names());
+		methods.set(snapshot.methods());
+		resolutions.clear();
+		interner.clear();
+		JavaParserFacade.clearInstances();
+
+		Set<IRustFunction> functions = new HashSet<>();
 		for (RustJar jar : crates)
-			jar.analyze(this);
+			jar.packages().forEach(pkg -> {
+				pkg.upToDate = false;
+				for (RustItem item : pkg.items())
+					functions.addAll(item.methods);
+			});
+		for (IRustFunction function : functions)
+			function.calls().callers.retainAll(functions);
+	}
+
+	/// Marks the packages of units unchanged since `previous` was recorded as up-to-date.
+	///
+	/// A unit is stale when its fingerprint changed, along with every unit transitively depending on it. All units
+	/// are stale when the registered names changed, as any of them may refer to those names.
+	public void skipUnchanged(IncrementalState previous) {
+		if (!previous.names.equals(namesFingerprint()))
+			return;
+		Map<String, RustUnit> units = new HashMap<>();
+		for (RustJar jar : crates)
+			for (RustUnit unit : jar.units)
+				units.put(unit.path.toString(), unit);
+
+		Deque<String> stale = new ArrayDeque<>();
+		units.forEach((path, unit) -> {
+			IncrementalState.Unit recorded = previous.units.get(path);
+			if (recorded == null || !recorded.fingerprint().equals(unit.fingerprint))
+				stale.add(path);
+		});
+		for (String path : previous.units.keySet())
+			if (!units.containsKey(path))
+				stale.add(path);
+
+		Map<String, Set<String>> dependents = previous.dependents();
+		Set<String> visited = new HashSet<>();
+		while (!stale.isEmpty()) {
+			String path = stale.pop();
+			if (visited.add(path))
+				stale.addAll(dependents.getOrDefault(path, Set.of()));
+		}
+
+		units.forEach((path, unit) -> unit.pkg.upToDate = !visited.contains(path));
+	}
+
+	/// Records the fingerprint and dependencies of every unit into `state`, keeping those of up-to-date units.
+	public void record(IncrementalState state, IncrementalState previous) {
+		Map<RustPackage, RustUnit> units = new HashMap<>();
+		for (RustJar jar : crates)
+			for (RustUnit unit : jar.units)
+				units.put(unit.pkg, unit);
+
+		state.names = namesFingerprint();
+		state.units.clear();
+		dependencies(units).forEach((unit, dependencies) -> {
+			String path = unit.path.toString();
+			if (unit.pkg.upToDate && previous.units.get(path) instanceof IncrementalState.Unit recorded) {
+				state.units.put(path, recorded);
+				return;
+			}
+			Set<String> paths = new TreeSet<>();
+			for (RustUnit dependency : dependencies)
+				paths.add(dependency.path.toString());
+			state.units.put(path, new IncrementalState.Unit(unit.fingerprint, paths));
+		});
+	}
+
+	/// Returns the other units each of `units` depends on, through the functions it calls and the types it refers
+	/// to, as resolved by its last analysis.
+	private static Map<RustUnit, Set<RustUnit>> dependencies(Map<RustPackage, RustUnit> units) {
+		Map<String, RustUnit> types = new HashMap<>();
+		units.forEach((pkg, unit) -> pkg
+			.items()
+			.stream()
+			.flatMap(JavaTranspiler::types)
+			.forEach(item -> types.put(item.id(), unit)));
+
+		Map<RustUnit, Set<RustUnit>> dependencies = new HashMap<>();
+		units.forEach((pkg, unit) -> {
+			Set<RustUnit> set = new HashSet<>();
+			for (RustItem item : pkg.items())
+				for (IRustFunction function : item.methods)
+					for (IRustFunction callee : function.calls().callees)
+						if (callee.item() != null && units.get(callee.item().module) instanceof RustUnit dependency)
+							set.add(dependency);
+			for (String type : pkg.references)
+				if (types.get(type) instanceof RustUnit dependency)
+					set.add(dependency);
+			set.remove(unit);
+			dependencies.put(unit, set);
+		});
+		return dependencies;
+	}
+
+	/// Returns an item along with the items of a local module, such as the types nested in it.
+	private static Stream<RustItem> types(RustItem item) {
+		if (item instanceof RustPackage mod)
+			return Stream.concat(Stream.of(item), mod.items().stream().flatMap(JavaTranspiler::types));
+		return Stream.of(item);
+	}
+
+	/// Returns a hash of every registered name, which changes whenever a declaration is added, removed or renamed.
+	public String namesFingerprint() {
+		StringBuilder sb = new StringBuilder();
+		Map<String, String> sorted = new TreeMap<>();
+		names.forEach((id, name) -> sorted.put(symbols.key(id), name));
+		sorted.forEach((id, name) -> sb.append(id).append('\t').append(name).append('\n'));
+		return ParseCache.hash(sb.toString().getBytes());
 	}
 
 	public void generate(Path output) throws IOException {
 		for (RustJar jar : crates)
-			jar.generate(output);
+			jar.generate(output, metrics, pool);
 	}
 
-	public void register(RustItem item) {
-		names.put(item.id(), item.path());
+	public int register(RustItem item) {
+		return registerName(item.id(), item.path());
 	}
 
-	public void registerName(String id, String name) {
-		names.put(id, name);
+	public int registerName(String id, String name) {
+		int symbol = symbols.id(id);
+		names.put(symbol, interner.intern(name));
+		if (id.indexOf('.') < 0)
+			simpleNames = true;
+		return symbol;
 	}
 
-	public String nameOf(String id) {
-		return names.get(id);
+	/// Returns the name registered for a simple name, such as that of a type of the default package, or `null`.
+	public @Nullable String nameOf(String simpleName) {
+		return simpleNames ? name(simpleName) : null;
 	}
 
 	public String describe(Type type) {
 		if (type.isVoidType())
 			return "()";
-		try {
-			ResolvedType ty = type.resolve();
-			if (ty != null)
+		Resolution<ResolvedType> resolution = resolve(type);
+		if (resolution instanceof Resolution.Failed<ResolvedType> failed) {
+			metrics.increment(Metrics.Counter.TYPES_UNRESOLVED);
+			diagnostics.warning("Couldn't describe type", failed.reason());
+			return "/* %s */ %s".formatted(failed.reason(), type);
+		}
+		metrics.increment(Metrics.Counter.TYPES_RESOLVED);
+		if (resolution.orNull() instanceof ResolvedType ty) {
+			try {
 				return describe(ty);
-		} catch (Throwable e) {
-			System.err.printf("Couldn't describe type: %s\n", e.getLocalizedMessage());
-			return "/* %s */ %s".formatted(e.getMessage(), type);
+			} catch (RuntimeException e) {
+				metrics.increment(Metrics.Counter.TYPES_UNRESOLVED);
+				diagnostics.warning("Couldn't describe type", Resolution.describe(e));
+				return "/* %s */ %s".formatted(e.getMessage(), type);
+			}
 		}
 		return "/* Java */ %s".formatted(type);
 	}
 
+	/// Resolves a type once per node, through the resolution cache.
+	public Resolution<ResolvedType> resolve(Type type) {
+		return ResolutionTable.type(type, resolutions);
+	}
+
+	/// Resolves a name once per node, through the resolution cache.
+	public Resolution<ResolvedValueDeclaration> resolve(NameExpr name) {
+		return ResolutionTable.value(name, resolutions);
+	}
+
+	/// Resolves a field access once per node, through the resolution cache.
+	public Resolution<ResolvedValueDeclaration> resolve(FieldAccessExpr access) {
+		return ResolutionTable.value(access, resolutions);
+	}
+
+	/// Resolves a call once per node, through the resolution cache.
+	public Resolution<ResolvedMethodDeclaration> resolve(MethodCallExpr call) {
+		return ResolutionTable.method(call, resolutions);
+	}
+
+	/// Calculates the type of an expression once per node, through the resolution cache.
+	public Resolution<ResolvedType> typeOf(Expression expression) {
+		return ResolutionTable.type(expression, resolutions);
+	}
+
 	public String describe(@NotNull ResolvedType ty) {
 		if (ty.isPrimitive())
 			return switch (ty.asPrimitive()) {
@@ -194,43 +781,77 @@ public final class JavaTranspiler {
 				case DOUBLE -> "f64";
 			};
 		if (ty.isArray())
-			return "&[%s]".formatted(describe(ty.asArrayType().getComponentType()));
+			return interner.intern("&[%s]".formatted(describe(ty.asArrayType().getComponentType())));
 		if (ty.isReferenceType())
-			return this.describeViaId(
-				ty.asReferenceType().getId(),
-				ty.asReferenceType().describe());
+			return ty
+				.asReferenceType()
+				.getTypeDeclaration()
+				.map(this::describe)
+				.orElseGet(() -> describeViaId(symbols.find(ty.asReferenceType().getId()), ty.asReferenceType().getId()));
 		if (ty.isTypeVariable())
 			return ty.asTypeVariable().describe();
 		throw new UnsupportedOperationException("Unknown ResolvedType " + ty);
 	}
 
 	public String describe(@NotNull ResolvedReferenceTypeDeclaration ty) {
-		return describeViaId(ty.getId(), ty.getName());
-	}
-
-	private String describeViaId(@NotNull String id, String insert) {
-		return describeViaId(id, () -> insert);
+		return describeViaId(symbols.id(ty), ty.getId());
 	}
 
-	private String describeViaId(@NotNull String id, Supplier<String> insert) {
-		if (names.get(id) instanceof String name)
+	/// Returns the name registered for the symbol of `id`, or a placeholder if it has none.
+	private String describeViaId(int symbol, @NotNull String id) {
+		if (name(symbol) instanceof String name)
 			return name;
-		if (errors.add(id))
-			System.err.printf("Unknown identifier (not related to type solving) '%s'%n", id);
-		//		String name = insert.get().replace(".", "::");
-		//		return names.put(id, name);
+		metrics.increment(Metrics.Counter.UNRESOLVED_IDENTIFIERS);
+		diagnostics.warning("Unknown identifier (not related to type solving)", id);
 		return "/* Java */ %s /**/".formatted(id.replace(".", "::"));
 	}
 
-	private String describeViaId(@NotNull String id, String insert, UnaryOperator<String> convert) {
-		return describeViaId(id, () -> convert.apply(insert));
+	/// Returns the name registered for `id`, or `defaultValue` if it has none. Prefer the overloads taking a
+	/// declaration, which don't look the id up by its text every time.
+	public String nameOf(String id, String defaultValue) {
+		String name = name(id);
+		return name == null ? defaultValue : name;
 	}
 
-	public String nameOf(String id, String defaultValue) {
-		String name = names.get(id);
+	/// Returns the name registered for `field`, or `defaultValue` if it has none.
+	public String nameOf(ResolvedFieldDeclaration field, String defaultValue) {
+		String name = name(symbols.id(field));
 		return name == null ? defaultValue : name;
 	}
 
+	/// Returns the name registered for the method of `symbol`, as given by [SymbolTable#id(ResolvedMethodDeclaration)],
+	/// or `defaultValue` if it has none.
+	public String nameOf(int symbol, String defaultValue) {
+		String name = name(symbol);
+		return name == null ? defaultValue : name;
+	}
+
+	/// Returns the name registered for the symbol `id`, reading it from the spill store by its key once spilled.
+	private @Nullable String name(int id) {
+		String name = names.get(id);
+		if (name == null && spill != null && symbols.key(id) instanceof String key)
+			return spill.name(key);
+		return name;
+	}
+
+	/// Returns the name registered for `key`, which may have been dropped from the symbol table once spilled.
+	private @Nullable String name(String key) {
+		int id = symbols.find(key);
+		if (id >= 0)
+			return name(id);
+		return spill == null ? null : spill.name(key);
+	}
+
+	/// Returns the descriptions of the types the method of `symbol` may throw, read from the spill store once spilled,
+	/// or an empty set if it isn't registered.
+	public Set<String> thrown(int symbol) {
+		if (methods.get(symbol) instanceof RustMethod registered)
+			return registered.thrown();
+		if (spill != null && symbols.key(symbol) instanceof String key && spill.thrown(key) instanceof Set<String> thrown)
+			return thrown;
+		return Set.of();
+	}
+
 	public String describe(Expression expr) {
 		if (expr == null)
 			return "";
@@ -250,24 +871,26 @@ public final class JavaTranspiler {
 		return visitor.toString();
 	}
 
-	private boolean addSubItem(File input, File root, RustJar jar, RustPackage parentModule) {
+	private boolean addSubItem(
+		File input,
+		File root,
+		List<RustJar.Source> sources,
+		RustPackage parentModule
+	) {
 		String moduleName = FilenameUtils.removeExtension(input.getName());
 		RustPackage module = parentModule.submodule(moduleName, RustVisibility.PUB);
-		boolean added = addItem(input, root, jar, module);
+		boolean added = addItem(input, root, sources, module);
 		if (!added)
 			module.delete();
 		return added;
 	}
 
-	private boolean addItem(File input, File root, RustJar jar, RustPackage module) {
+	/// Discovers the Java files under `input`, creating their packages, without parsing them.
+	private boolean addItem(File input, File root, List<RustJar.Source> sources, RustPackage module) {
 		File[] children = input.listFiles();
 		if (children == null) {
 			if (input.getPath().endsWith(".java")) {
-				try {
-					jar.add(input.toPath(), module);
-				} catch (IOException e) {
-					System.err.printf("Couldn't add unit to jar: %s\n", e);
-				}
+				sources.add(new RustJar.Source(input.toPath(), module));
 				return true;
 			}
 			return false;
@@ -275,7 +898,7 @@ public final class JavaTranspiler {
 
 		boolean containsSource = false;
 		for (File file : children)
-			if (addSubItem(file, root, jar, module))
+			if (addSubItem(file, root, sources, module))
 				containsSource = true;
 		if (containsSource)
 			directories.add(input);
@@ -0,0 +1,147 @@
+package java2rust;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.LongAdder;
+
+/// Timings of the phases of a run and counters of the work done, safe to update from any thread.
+public final class Metrics {
+	private final List<Phase> phases = new ArrayList<>();
+	private final LongAdder[] counters = new LongAdder[Counter.values().length];
+
+	public Metrics() {
+		for (int i = 0; i < counters.length; i++)
+			counters[i] = new LongAdder();
+	}
+
+	public enum Counter {
+		UNITS_PARSED("units parsed"),
+		UNITS_FAILED("units failed to parse"),
+		TYPES_RESOLVED("types resolved"),
+		TYPES_UNRESOLVED("types unresolved"),
+		RESOLUTION_CACHE_HITS("resolution cache hits"),
+		RESOLUTION_CACHE_MISSES("resolution cache misses"),
+		FAILURES_REUSED("failures reused"),
+		METHODS_REGISTERED("methods registered"),
+		UNRESOLVED_IDENTIFIERS("unresolved identifiers"),
+		FAILURES("failures"),
+		FILES_WRITTEN("files written"),
+		FILES_UNCHANGED("files unchanged"),
+		FILES_DELETED("files deleted"),
+		BYTES_WRITTEN("bytes written"),
+		STRINGS_INTERNED("strings interned"),
+		STRINGS_DEDUPLICATED("strings deduplicated"),
+		STRING_BYTES_SAVED("string bytes saved"),
+		NAMES_SPILLED("names spilled"),
+		METHODS_SPILLED("methods spilled"),
+		BYTES_SPILLED("bytes spilled");
+
+		public final String label;
+
+		Counter(String label) {
+			this.label = label;
+		}
+
+		/// Returns the name of this counter in JSON exports.
+		public String key() {
+			return name().toLowerCase();
+		}
+	}
+
+	/// A finished phase, with its wall and CPU time in nanoseconds.
+	///
+	/// The CPU time is that of the whole process, thus includes every thread working during the phase.
+	public record Phase(String name, long wallNanos, long cpuNanos) {}
+
+	/// A phase being timed, which is recorded when closed.
+	public final class Timer implements AutoCloseable {
+		private final String name;
+		private final long wall = System.nanoTime();
+		private final long cpu = cpuTime();
+
+		private Timer(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public void close() {
+			Phase phase = new Phase(name, System.nanoTime() - wall, cpuTime() - cpu);
+			synchronized (phases) {
+				phases.add(phase);
+			}
+		}
+	}
+
+	/// Starts timing a phase, to be used with try-with-resources.
+	public Timer phase(String name) {
+		return new Timer(name);
+	}
+
+	public void increment(Counter counter) {
+		counters[counter.ordinal()].increment();
+	}
+
+	public void add(Counter counter, long value) {
+		counters[counter.ordinal()].add(value);
+	}
+
+	/// Forgets every phase and counter recorded so far.
+	public void reset() {
+		synchronized (phases) {
+			phases.clear();
+		}
+		for (LongAdder counter : counters)
+			counter.reset();
+	}
+
+	public long get(Counter counter) {
+		return counters[counter.ordinal()].sum();
+	}
+
+	public List<Phase> phases() {
+		synchronized (phases) {
+			return List.copyOf(phases);
+		}
+	}
+
+	/// Prints the phases and counters as a table.
+	public void print(PrintStream out) {
+		out.printf("%-24s %12s %12s%n", "Phase", "Wall (ms)", "CPU (ms)");
+		for (Phase phase : phases())
+			out.printf("%-24s %12.1f %12.1f%n", phase.name(), phase.wallNanos() / 1e6, phase.cpuNanos() / 1e6);
+		out.println();
+		out.printf("%-24s %12s%n", "Counter", "Value");
+		for (Counter counter : Counter.values())
+			out.printf("%-24s %12d%n", counter.label, get(counter));
+	}
+
+	public String toJson() {
+		StringJoiner phases = new StringJoiner(",\n\t\t", "[\n\t\t", "\n\t]");
+		phases.setEmptyValue("[]");
+		for (Phase phase : phases())
+			phases.add("{\"name\": \"%s\", \"wall_nanos\": %d, \"cpu_nanos\": %d}".formatted(
+				phase.name().replace("\\", "\\\\").replace("\"", "\\\""),
+				phase.wallNanos(),
+				phase.cpuNanos()));
+		StringJoiner counters = new StringJoiner(",\n\t\t", "{\n\t\t", "\n\t}");
+		for (Counter counter : Counter.values())
+			counters.add("\"%s\": %d".formatted(counter.key(), get(counter)));
+		return "{\n\t\"phases\": %s,\n\t\"counters\": %s\n}\n".formatted(phases, counters);
+	}
+
+	public void writeJson(Path file) throws IOException {
+		Files.writeString(file, toJson());
+	}
+
+	private static long cpuTime() {
+		if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os)
+			return os.getProcessCpuTime();
+		return 0;
+	}
+}
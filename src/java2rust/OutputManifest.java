@@ -0,0 +1,95 @@
+package java2rust;
+
+import javaparser.ParseCache;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/// The files generated into a crate, with the hash of their content, as recorded by a run for the next one.
+///
+/// The manifest is a tab-separated text file at the root of the crate, every line holding the hash of a file and its
+/// path relative to the crate. Files may be recorded concurrently.
+public final class OutputManifest {
+	public static final String FILE = ".java2rust-manifest";
+
+	public final Path crate;
+	/// The hash of every recorded file, by path relative to the crate.
+	public final Map<String, String> files = new ConcurrentSkipListMap<>();
+
+	public OutputManifest(Path crate) {
+		this.crate = crate;
+	}
+
+	/// Loads the manifest recorded in `crate`, or an empty manifest if there is none.
+	public static OutputManifest load(Path crate) {
+		OutputManifest manifest = new OutputManifest(crate);
+		Path file = crate.resolve(FILE);
+		if (!Files.exists(file))
+			return manifest;
+		try {
+			for (String line : Files.readAllLines(file)) {
+				String[] fields = line.split("\t", 2);
+				if (fields.length == 2)
+					manifest.files.put(fields[1], fields[0]);
+			}
+		} catch (IOException e) {
+			System.err.printf("Couldn't read output manifest: %s\n", e.getLocalizedMessage());
+			manifest.files.clear();
+		}
+		return manifest;
+	}
+
+	public void save() throws IOException {
+		List<String> lines = new ArrayList<>(files.size());
+		files.forEach((path, hash) -> lines.add(hash + "\t" + path));
+		Files.write(crate.resolve(FILE), lines);
+	}
+
+	public void put(Path file, String hash) {
+		files.put(crate.relativize(file).toString(), hash);
+	}
+
+	/// Records `file` as it was recorded by `previous`, for files which were left untouched.
+	public void keep(OutputManifest previous, Path file) {
+		String path = crate.relativize(file).toString();
+		String hash = previous.files.get(path);
+		if (hash != null)
+			files.put(path, hash);
+	}
+
+	/// Deletes the files recorded by `previous` which weren't recorded by this manifest, along with the directories
+	/// left empty. Files modified since they were generated are kept.
+	public void deleteStale(OutputManifest previous, Metrics metrics) {
+		previous.files.forEach((path, hash) -> {
+			if (files.containsKey(path))
+				return;
+			Path file = crate.resolve(path);
+			try {
+				if (!Files.isRegularFile(file))
+					return;
+				if (!hash.equals(ParseCache.hash(Files.readAllBytes(file)))) {
+					System.err.printf("Keeping stale file %s, as it was modified since generated\n", file);
+					return;
+				}
+				Files.delete(file);
+				metrics.increment(Metrics.Counter.FILES_DELETED);
+				for (Path dir = file.getParent(); !dir.equals(crate) && isEmpty(dir); dir = dir.getParent())
+					Files.delete(dir);
+			} catch (IOException e) {
+				System.err.printf("Couldn't delete stale file %s: %s\n", file, e.getLocalizedMessage());
+			}
+		});
+	}
+
+	private static boolean isEmpty(Path dir) throws IOException {
+		try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+			return !entries.iterator().hasNext();
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package java2rust;
+
+import com.github.javaparser.resolution.UnsolvedSymbolException;
+import org.jspecify.annotations.Nullable;
+
+import java.util.function.Supplier;
+
+/// The outcome of resolving a node: what it resolved to, or why it couldn't be resolved.
+///
+/// Failures hold a description of the exception thrown by the symbol solver rather than the exception itself, so
+/// that remembering them retains no stack trace.
+public sealed interface Resolution<T> {
+	record Resolved<T>(T value) implements Resolution<T> {}
+
+	/// A failure, where `unsolved` is whether a symbol couldn't be found at all rather than resolving it failed.
+	record Failed<T>(String reason, boolean unsolved) implements Resolution<T> {}
+
+	/// Calls `resolver`, turning the exception it throws into a failure, as well as the stack overflow the symbol
+	/// solver runs into on some cyclic or deeply nested declarations.
+	static <T> Resolution<T> of(Supplier<? extends T> resolver) {
+		try {
+			return new Resolved<>(resolver.get());
+		} catch (UnsolvedSymbolException e) {
+			return new Failed<>(describe(e), true);
+		} catch (RuntimeException | StackOverflowError e) {
+			return new Failed<>(describe(e), false);
+		}
+	}
+
+	static String describe(Throwable e) {
+		return e.getLocalizedMessage() != null ? e.getLocalizedMessage() : e.toString();
+	}
+
+	/// Returns the value resolved, or `null` if resolving failed.
+	default @Nullable T orNull() {
+		return this instanceof Resolved<T> resolved ? resolved.value() : null;
+	}
+}
@@ -0,0 +1,197 @@
+package java2rust;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.*;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.FieldAccessExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.expr.ObjectCreationExpr;
+import com.github.javaparser.ast.expr.TypePatternExpr;
+import com.github.javaparser.ast.stmt.LocalClassDeclarationStmt;
+import com.github.javaparser.ast.stmt.LocalRecordDeclarationStmt;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.ast.type.TypeParameter;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedValueDeclaration;
+import com.github.javaparser.resolution.types.ResolvedType;
+import org.jspecify.annotations.Nullable;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/// A bounded cache of resolved types, keyed by the text of a type and the type declaration enclosing it, along with
+/// the names, calls, field accesses and expressions which failed to resolve.
+///
+/// Two occurrences of the same text within the same type declaration resolve identically, as they share imports,
+/// package and type parameters. Text within anonymous classes, within members declaring a local variable, type or
+/// type parameter it names, or within declarations without a qualified name such as local classes, is resolved
+/// every time since its scope cannot be named this way. Failures are cached like types, so that a missing
+/// dependency fails once per scope rather than once per occurrence.
+///
+/// Only the failures of names, calls, field accesses and expression types are cached, keyed by their kind along with
+/// their text and scope, as what they resolve to may differ between occurrences while their failure doesn't.
+public final class ResolutionCache {
+	public static final int DEFAULT_CAPACITY = 1 << 16;
+
+	private final Map<String, Resolution<ResolvedType>> cache;
+	/// The reasons expressions failed to resolve, by kind, type declaration and text.
+	private final Map<String, String> failures;
+	private final Metrics metrics;
+	private long hits;
+	private long misses;
+
+	public ResolutionCache(int capacity, Metrics metrics) {
+		this.metrics = metrics;
+		this.cache = bounded(capacity);
+		this.failures = bounded(capacity);
+	}
+
+	private static <V> Map<String, V> bounded(int capacity) {
+		return new LinkedHashMap<>(Math.min(capacity, DEFAULT_CAPACITY), 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/// Resolves `type`, reusing the result of a previous resolution within the same scope.
+	public Resolution<ResolvedType> resolve(Type type) {
+		String key = key(type);
+		if (key == null)
+			return Resolution.of(type::resolve);
+		synchronized (this) {
+			if (cache.get(key) instanceof Resolution<ResolvedType> resolution) {
+				hits++;
+				metrics.increment(Metrics.Counter.RESOLUTION_CACHE_HITS);
+				if (resolution instanceof Resolution.Failed<ResolvedType>)
+					metrics.increment(Metrics.Counter.FAILURES_REUSED);
+				return resolution;
+			}
+			misses++;
+		}
+		metrics.increment(Metrics.Counter.RESOLUTION_CACHE_MISSES);
+		Resolution<ResolvedType> resolution = Resolution.of(type::resolve);
+		synchronized (this) {
+			cache.put(key, resolution);
+		}
+		return resolution;
+	}
+
+	/// Resolves `name`, unless it failed to resolve within the same scope.
+	public Resolution<ResolvedValueDeclaration> resolve(NameExpr name) {
+		return unlessFailed("name", name, name::resolve);
+	}
+
+	/// Resolves `call`, unless it failed to resolve within the same scope.
+	public Resolution<ResolvedMethodDeclaration> resolve(MethodCallExpr call) {
+		return unlessFailed("call", call, call::resolve);
+	}
+
+	/// Resolves `access`, unless it failed to resolve within the same scope.
+	public Resolution<ResolvedValueDeclaration> resolve(FieldAccessExpr access) {
+		return unlessFailed("field", access, access::resolve);
+	}
+
+	/// Calculates the type of `expression`, unless it failed to be within the same scope.
+	public Resolution<ResolvedType> type(Expression expression) {
+		return unlessFailed("type", expression, expression::calculateResolvedType);
+	}
+
+	private <T> Resolution<T> unlessFailed(String kind, Expression expression, Supplier<T> resolver) {
+		String key = key(kind, expression);
+		if (key != null) {
+			synchronized (this) {
+				if (failures.get(key) instanceof String reason) {
+					metrics.increment(Metrics.Counter.FAILURES_REUSED);
+					return new Resolution.Failed<>(reason, true);
+				}
+			}
+		}
+		Resolution<T> resolution = Resolution.of(resolver);
+		if (key != null && resolution instanceof Resolution.Failed<T> failed && failed.unsolved()) {
+			synchronized (this) {
+				failures.put(key, failed.reason());
+			}
+		}
+		return resolution;
+	}
+
+	/// Returns the ratio of resolutions served from the cache.
+	public synchronized double hitRate() {
+		long total = hits + misses;
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	public synchronized int size() {
+		return cache.size();
+	}
+
+	public synchronized void clear() {
+		cache.clear();
+		failures.clear();
+	}
+
+	/// Returns the key of `type` within the type declaration enclosing it, or `null` if it may refer to a type
+	/// parameter of a method, to a local type or to a member of a class body which isn't a type declaration.
+	private static @Nullable String key(Type type) {
+		Set<String> types = new HashSet<>();
+		for (ClassOrInterfaceType named : type.findAll(ClassOrInterfaceType.class))
+			types.add(named.getNameAsString());
+		String scope = scope(type, Set.of(), types);
+		return scope == null ? null : scope + " " + type.asString();
+	}
+
+	/// Returns the key of the `kind` of resolution of `expression` within the type declaration enclosing it, or
+	/// `null` if it may refer to a local declaration or to a member of a class body which isn't a type declaration.
+	private static @Nullable String key(String kind, Expression expression) {
+		if (expression.getTokenRange().isEmpty())
+			return null;
+		// A simple name may refer to a variable as well as to a type.
+		Set<String> names = new HashSet<>();
+		Set<String> types = new HashSet<>();
+		for (NameExpr name : expression.findAll(NameExpr.class)) {
+			names.add(name.getNameAsString());
+			types.add(name.getNameAsString());
+		}
+		for (ClassOrInterfaceType named : expression.findAll(ClassOrInterfaceType.class))
+			types.add(named.getNameAsString());
+		String scope = scope(expression, names, types);
+		return scope == null ? null : kind + " " + scope + " " + expression.getTokenRange().get();
+	}
+
+	/// Returns the qualified name of the type declaration enclosing `node`, or `null` if a declaration in between
+	/// may declare one of `names` or `types` locally or isn't a type declaration.
+	private static @Nullable String scope(Node node, Set<String> names, Set<String> types) {
+		for (Node parent = node.getParentNode().orElse(null); parent != null; parent = parent.getParentNode().orElse(null)) {
+			if (parent instanceof ObjectCreationExpr creation && creation.getAnonymousClassBody().isPresent())
+				return null;
+			if (parent instanceof EnumConstantDeclaration constant && !constant.getClassBody().isEmpty())
+				return null;
+			if (parent instanceof TypeDeclaration<?> declaration)
+				return declaration.getFullyQualifiedName().orElse(null);
+			if (parent instanceof BodyDeclaration<?> member && declares(member, names, types))
+				return null;
+		}
+		return null;
+	}
+
+	private static boolean declares(BodyDeclaration<?> member, Set<String> names, Set<String> types) {
+		return member
+			.findFirst(Node.class, node -> switch (node) {
+				case VariableDeclarator variable -> names.contains(variable.getNameAsString());
+				case Parameter parameter -> names.contains(parameter.getNameAsString());
+				case TypePatternExpr pattern -> names.contains(pattern.getNameAsString());
+				case TypeParameter parameter -> types.contains(parameter.getNameAsString());
+				case LocalClassDeclarationStmt local -> types.contains(local.getClassDeclaration().getNameAsString());
+				case LocalRecordDeclarationStmt local -> types.contains(local.getRecordDeclaration().getNameAsString());
+				default -> false;
+			})
+			.isPresent();
+	}
+}
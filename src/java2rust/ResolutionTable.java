@@ -0,0 +1,83 @@
+package java2rust;
+
+import com.github.javaparser.ast.DataKey;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.FieldAccessExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedValueDeclaration;
+import com.github.javaparser.resolution.types.ResolvedType;
+
+import java.util.function.Supplier;
+
+/// The resolutions of the nodes of units, made once and remembered on the nodes themselves.
+///
+/// Preanalysis resolves the calls and the assigned names of every unit, then analysis resolves them again while
+/// translating bodies. Both read through this table, so that each node is only resolved by the symbol solver once.
+/// Failures are remembered too, as resolving again would fail the same way.
+///
+/// The resolutions of a unit are released along with its nodes, and must be forgotten when the declarations they
+/// refer to change.
+public final class ResolutionTable {
+	private static final DataKey<Resolution<ResolvedMethodDeclaration>> METHOD = new DataKey<>() {};
+	private static final DataKey<Resolution<ResolvedValueDeclaration>> VALUE = new DataKey<>() {};
+	private static final DataKey<Resolution<ResolvedType>> TYPE = new DataKey<>() {};
+
+	private ResolutionTable() {}
+
+	/// Returns the declaration `n` calls, resolving it through `cache` unless it was already.
+	public static Resolution<ResolvedMethodDeclaration> method(MethodCallExpr n, ResolutionCache cache) {
+		return remember(n, METHOD, () -> cache.resolve(n));
+	}
+
+	/// Returns the declaration `n` refers to, resolving it through `cache` unless it was already.
+	public static Resolution<ResolvedValueDeclaration> value(NameExpr n, ResolutionCache cache) {
+		return remember(n, VALUE, () -> cache.resolve(n));
+	}
+
+	/// Returns the field `n` accesses, resolving it through `cache` unless it was already.
+	public static Resolution<ResolvedValueDeclaration> value(FieldAccessExpr n, ResolutionCache cache) {
+		return remember(n, VALUE, () -> cache.resolve(n));
+	}
+
+	/// Returns the type of `n`, as calculated by [Expression#calculateResolvedType()] through `cache` unless it
+	/// was already.
+	public static Resolution<ResolvedType> type(Expression n, ResolutionCache cache) {
+		return remember(n, TYPE, () -> cache.type(n));
+	}
+
+	/// Returns the type `n` refers to, resolving it through `cache` unless it was already.
+	public static Resolution<ResolvedType> type(Type n, ResolutionCache cache) {
+		return remember(n, TYPE, () -> cache.resolve(n));
+	}
+
+	/// Forgets the resolutions of `root` and of its descendants.
+	public static void forget(Node root) {
+		root.walk(node -> {
+			synchronized (node) {
+				node.removeData(METHOD);
+				node.removeData(VALUE);
+				node.removeData(TYPE);
+			}
+		});
+	}
+
+	private static <T> Resolution<T> remember(
+		Node node,
+		DataKey<Resolution<T>> key,
+		Supplier<Resolution<T>> resolver
+	) {
+		synchronized (node) {
+			if (node.containsData(key))
+				return node.getData(key);
+		}
+		Resolution<T> resolution = resolver.get();
+		synchronized (node) {
+			node.setData(key, resolution);
+		}
+		return resolution;
+	}
+}
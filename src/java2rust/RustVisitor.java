@@ -8,15 +8,8 @@ import com.github.javaparser.ast.modules.*;
 import com.github.javaparser.ast.stmt.*;
 import com.github.javaparser.ast.type.*;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
-import com.github.javaparser.resolution.UnsolvedSymbolException;
-import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
-import com.github.javaparser.resolution.declarations.ResolvedValueDeclaration;
-import com.github.javaparser.resolution.types.ResolvedType;
-import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserParameterDeclaration;
-import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserVariableDeclaration;
 import java2rust.rust.IRustFunction;
 import java2rust.rust.RustItem;
-import java2rust.rust.RustMethod;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Strings;
 import org.jspecify.annotations.Nullable;
@@ -729,60 +722,13 @@ public final class RustVisitor extends VoidVisitorAdapter<Object> {
 		printJavaComment(n.getComment().orElse(null), arg);
 		n.getScope().accept(this, arg);
 
-		String access = ".";
 		String name = n.getNameAsString();
-		try {
-			ResolvedValueDeclaration value = n.resolve();
-			boolean isStatic;
-			if (value.isField())
-				isStatic = value.asField().isStatic();
-			else if (value.isVariable())
-				isStatic = false;
-			else if (value.isEnumConstant())
-				isStatic = true;
-			else if (value.isTypePattern())
-				isStatic = true;
-			else if (value.isParameter())
-				isStatic = false;
-			else if (value.isType())
-				isStatic = true;
-			else if (value.isMethod())
-				isStatic = false;
-				//TODO: when there's a way to detect array length, do that and throw an exception on else
-			else
-				// this is an array `.length` access
-				isStatic = false;
-			//			else
-			//				throw new UnsupportedOperationException(
-			//					"Unsupported FieldAccessExpr: Unknown value '%s' (%s)".formatted(
-			//						value.getName(),
-			//						value));
-
-			access = isStatic ? "::" : ".";
-
-			ResolvedType ty = value.getType();
-			if (ty.isReferenceType()) {
-				String id = "%s.%s".formatted(ty.asReferenceType().getId(), n.getNameAsString());
-				name = transpiler.nameOf(id, name);
-			}
-		} catch (UnsolvedSymbolException _) {
-			// Assume it's a local type instead
-			try {
-				ResolvedType scope = n.getScope().calculateResolvedType();
-				access = "::";
-				name = transpiler.nameOf(scope.describe() + "." + name, name);
-			} catch (Throwable e) {
-				if (e.getLocalizedMessage() != null)
-					System.err.printf("In unsolved FieldAccessExpr: %s\n", e.getLocalizedMessage());
-				else
-					System.err.printf("In unsolved FieldAccessExpr: %s\n", e);
-			}
-		} catch (Throwable e) {
-			if (e.getLocalizedMessage() != null)
-				System.err.printf("In FieldAccessExpr: %s\n", e.getLocalizedMessage());
-			else
-				System.err.printf("In FieldAccessExpr: %s\n", e);
-		}
+		Bindings.Access binding = Bindings.access(n, transpiler);
+		String access = binding.isStatic() ? "::" : ".";
+		if (binding.symbol() >= 0)
+			name = transpiler.nameOf(binding.symbol(), name);
+		else if (binding.scope() != null)
+			name = transpiler.nameOf(binding.scope() + "." + name, name);
 
 		printer.print(access + name);
 	}
@@ -980,27 +926,19 @@ public final class RustVisitor extends VoidVisitorAdapter<Object> {
 	public void visit(final MethodCallExpr n, final Object arg) {
 		printJavaComment(n.getComment().orElse(null), arg);
 
-		String access = ".";
 		String name = n.getNameAsString();
-		String scope = null;
-		Set<ResolvedType> thrown = null;
-		boolean isVoid = false;
+		Set<String> thrown = null;
 		boolean isWithinTry = !tryBlock.isEmpty();
-		try {
-			ResolvedMethodDeclaration resolved = n.resolve();
-			access = resolved.isStatic() ? "::" : ".";
-			name = this.transpiler.nameOf(resolved.getQualifiedSignature(), name);
-			isVoid = resolved.getReturnType().isVoid();
-
-			RustMethod method = this.transpiler.method(resolved);
-			if (method != null && !method.thrown().isEmpty())
-				thrown = method.thrown();
-
-			if (n.getScope().isEmpty())
-				scope = resolved.isStatic() ? transpiler.describe(resolved.declaringType()) : "self";
-		} catch (Throwable e) {
-			System.err.printf("In MethodCallExpr: %s\n", e.getLocalizedMessage());
+		Bindings.Call binding = Bindings.call(n, transpiler);
+		String access = binding.isStatic() ? "::" : ".";
+		String scope = binding.scope();
+		if (binding.symbol() >= 0) {
+			name = transpiler.nameOf(binding.symbol(), name);
+			Set<String> types = transpiler.thrown(binding.symbol());
+			if (!types.isEmpty())
+				thrown = types;
 		}
+		boolean isVoid = binding.returnsVoid();
 
 		if (isWithinTry && thrown != null)
 			printer.print(isVoid ? "if let Err(e) = " : "match ");
@@ -1116,21 +1054,9 @@ public final class RustVisitor extends VoidVisitorAdapter<Object> {
 	public void visit(final NameExpr n, final Object arg) {
 		printJavaComment(n.getComment().orElse(null), arg);
 
-		try {
-			ResolvedValueDeclaration resolved = n.resolve();
-			if (resolved.isField() && item != null) {
-				if (Objects.equals(item.id(), resolved.asField().declaringType().getId()))
-					printer.print("self.");
-			} else if (resolved instanceof JavaParserParameterDeclaration) {} else if (resolved instanceof JavaParserVariableDeclaration) {} else {
-				System.err.printf("In NameExpr: unknown resolved value: %s\n", resolved.getType());
-			}
-		} catch (Throwable t) {
-			if (t.getLocalizedMessage() != null)
-				System.err.printf("In NameExpr: %s\n", t.getLocalizedMessage());
-			else
-				System.err.printf("In NameExpr: %s\n", t);
-		}
-
+		Bindings.Name binding = Bindings.name(n, transpiler);
+		if (item != null && Objects.equals(item.id(), binding.declaringType()))
+			printer.print("self.");
 
 		/*
 		Optional<Pair<TypeDescription, Node>> b = idTracker.findDeclarationNodeFor(
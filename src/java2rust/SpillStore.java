@@ -0,0 +1,265 @@
+package java2rust;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/// The names and the thrown types of methods of generated crates, moved out of the heap to a file mapped in memory.
+///
+/// Records are appended to a temporary file and indexed by the hash of their key, the key of a [SymbolTable], which
+/// is stored along with the record to tell keys of the same hash apart. The heap only holds a hash and an offset per
+/// record, so that the keys of spilled declarations can be dropped from the symbol table. Records put since the last
+/// [#flush()] aren't readable yet, and a key put again shadows its previous record, which lies before it in the file.
+/// The file is mapped in segments which records never straddle, and is deleted once the store is closed.
+///
+/// The records read last are kept decoded, so that looking the same key up again doesn't decode its strings anew.
+///
+/// Records are read concurrently, but must be put by a single thread while nothing reads them.
+public final class SpillStore implements Closeable {
+	/// The size of the segments mapped, unless another one is given.
+	public static final int SEGMENT_SIZE = 1 << 30;
+	/// The number of records kept decoded.
+	private static final int DECODED_CAPACITY = 1 << 12;
+
+	public final Path file;
+	private final int segmentSize;
+	private final ToLongFunction<String> hash;
+	private final FileChannel channel;
+	private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+	private final DataOutputStream out = new DataOutputStream(pending);
+	/// The segments mapped by the last flush, replaced as a whole so that readers don't lock.
+	private volatile List<MappedByteBuffer> segments = List.of();
+	private final Index names = new Index();
+	private final Index methods = new Index();
+	/// The records read last, by offset.
+	private final Map<Long, List<String>> decoded = new LinkedHashMap<>(64, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, List<String>> eldest) {
+			return size() > DECODED_CAPACITY;
+		}
+	};
+	private long written;
+
+	/// An open addressing table of the offsets of records, by the hash of their key, where a zero hash marks an
+	/// empty slot.
+	private static final class Index {
+		/// The hashes and the offsets of the records, replaced as a whole when grown.
+		volatile Slots slots = new Slots(new long[1024], new long[1024]);
+		int size;
+	}
+
+	private record Slots(long[] hashes, long[] offsets) {}
+
+	/// Creates a store in a new file of `directory`.
+	public SpillStore(Path directory) throws IOException {
+		this(directory, SEGMENT_SIZE, SpillStore::hash);
+	}
+
+	/// Creates a store in a new file of `directory`, mapped in segments of `segmentSize` bytes and indexing keys by
+	/// `hash`, so that segment boundaries and hash collisions can be exercised without writing gigabytes or finding
+	/// colliding keys.
+	public SpillStore(Path directory, int segmentSize, ToLongFunction<String> hash) throws IOException {
+		if (segmentSize <= 0)
+			throw new IllegalArgumentException("Segment size must be positive: " + segmentSize);
+		this.segmentSize = segmentSize;
+		this.hash = hash;
+		file = Files.createTempFile(Files.createDirectories(directory), "java2rust", ".spill");
+		channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+	}
+
+	public void putName(String key, String name) {
+		put(names, key, List.of(name));
+	}
+
+	/// Records the types thrown by the method of `key`, as described by [java2rust.rust.IRustFunction#thrown()].
+	public void putThrown(String key, Collection<String> thrown) {
+		put(methods, key, thrown);
+	}
+
+	/// Returns the name of `key`, or `null` if it has none.
+	public @Nullable String name(String key) {
+		List<String> record = read(names, key);
+		return record == null ? null : record.getFirst();
+	}
+
+	/// Returns the types thrown by the method of `key`, or `null` if it has no record.
+	public @Nullable Set<String> thrown(String key) {
+		List<String> record = read(methods, key);
+		return record == null ? null : Set.copyOf(record);
+	}
+
+	/// Returns the number of bytes of records, written or pending.
+	public long size() {
+		return written + pending.size();
+	}
+
+	/// Writes the records put so far, and maps them so that they can be read.
+	public synchronized void flush() throws IOException {
+		if (pending.size() == 0)
+			return;
+		ByteBuffer buffer = ByteBuffer.wrap(pending.toByteArray());
+		while (buffer.hasRemaining())
+			channel.write(buffer, written + buffer.position());
+		written += pending.size();
+		pending.reset();
+
+		// The last segment is mapped again, as it grew.
+		List<MappedByteBuffer> segments = new ArrayList<>(this.segments);
+		if (!segments.isEmpty())
+			segments.removeLast();
+		for (long start = (long) segments.size() * segmentSize; start < written; start += segmentSize)
+			segments.add(channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentSize, written - start)));
+		this.segments = List.copyOf(segments);
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		segments = List.of();
+		synchronized (decoded) {
+			decoded.clear();
+		}
+		channel.close();
+		Files.deleteIfExists(file);
+	}
+
+	/// Appends a record of `key` followed by `strings`, and indexes it in `index`.
+	private synchronized void put(Index index, String key, Collection<String> strings) {
+		List<byte[]> encoded = new ArrayList<>(strings.size() + 1);
+		encoded.add(key.getBytes(StandardCharsets.UTF_8));
+		for (String s : strings)
+			encoded.add(s.getBytes(StandardCharsets.UTF_8));
+		int length = Integer.BYTES;
+		for (byte[] bytes : encoded)
+			length += Integer.BYTES + bytes.length;
+		if (length > segmentSize)
+			throw new IllegalArgumentException("Record too large to be spilled: " + length + " bytes");
+
+		try {
+			long offset = size();
+			long remaining = segmentSize - offset % segmentSize;
+			if (remaining < length) {
+				out.write(new byte[(int) remaining]);
+				offset += remaining;
+			}
+			out.writeInt(encoded.size());
+			for (byte[] bytes : encoded) {
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+			index(index, hashOf(key), offset);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/// Adds the record at `offset` to `index`.
+	private static void index(Index index, long hash, long offset) {
+		Slots slots = index.slots;
+		if (2 * (index.size + 1) > slots.hashes().length) {
+			Slots grown = new Slots(new long[slots.hashes().length * 2], new long[slots.hashes().length * 2]);
+			for (int i = 0; i < slots.hashes().length; i++)
+				if (slots.hashes()[i] != 0)
+					insert(grown, slots.hashes()[i], slots.offsets()[i]);
+			index.slots = slots = grown;
+		}
+		insert(slots, hash, offset);
+		index.size++;
+	}
+
+	private static void insert(Slots slots, long hash, long offset) {
+		int mask = slots.hashes().length - 1;
+		int slot = (int) hash & mask;
+		while (slots.hashes()[slot] != 0)
+			slot = (slot + 1) & mask;
+		slots.offsets()[slot] = offset;
+		slots.hashes()[slot] = hash;
+	}
+
+	/// Reads the strings recorded for `key` in `index`, or returns `null` if it has none or if it isn't flushed yet.
+	private @Nullable List<String> read(Index index, String key) {
+		long hash = hashOf(key);
+		Slots slots = index.slots;
+		int mask = slots.hashes().length - 1;
+		List<String> found = null;
+		long foundOffset = -1;
+		// Growing the index doesn't keep the records of a key in the order they were put, but records are appended,
+		// so the last one put is the one furthest in the file.
+		for (int slot = (int) hash & mask; slots.hashes()[slot] != 0; slot = (slot + 1) & mask) {
+			long offset = slots.offsets()[slot];
+			if (slots.hashes()[slot] != hash || offset < foundOffset)
+				continue;
+			List<String> record = read(offset);
+			if (record != null && record.getFirst().equals(key)) {
+				found = record.subList(1, record.size());
+				foundOffset = offset;
+			}
+		}
+		return found;
+	}
+
+	/// Reads the record at `offset`, or returns `null` if it isn't flushed yet.
+	private @Nullable List<String> read(long offset) {
+		synchronized (decoded) {
+			List<String> record = decoded.get(offset);
+			if (record != null)
+				return record;
+		}
+		List<MappedByteBuffer> segments = this.segments;
+		int segmentIndex = (int) (offset / segmentSize);
+		if (segmentIndex >= segments.size())
+			return null;
+		ByteBuffer segment = segments.get(segmentIndex);
+		if (offset % segmentSize >= segment.capacity())
+			return null;
+		int position = (int) (offset % segmentSize);
+		int count = segment.getInt(position);
+		position += Integer.BYTES;
+		List<String> strings = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			int length = segment.getInt(position);
+			byte[] bytes = new byte[length];
+			segment.get(position + Integer.BYTES, bytes);
+			strings.add(new String(bytes, StandardCharsets.UTF_8));
+			position += Integer.BYTES + length;
+		}
+		List<String> record = List.copyOf(strings);
+		synchronized (decoded) {
+			decoded.put(offset, record);
+		}
+		return record;
+	}
+
+	/// Returns the hash of `key`, never zero so that it never marks an empty slot.
+	private long hashOf(String key) {
+		long hash = this.hash.applyAsLong(key);
+		return hash == 0 ? 1 : hash;
+	}
+
+	/// Returns the 64-bit FNV-1a hash of the characters of `key`.
+	private static long hash(String key) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < key.length(); i++) {
+			hash ^= key.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+}
@@ -0,0 +1,200 @@
+package java2rust;
+
+import com.github.javaparser.ast.DataKey;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.resolution.declarations.ResolvedFieldDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserFieldDeclaration;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/// Dense int ids for declarations, identified by their qualified name or signature.
+///
+/// The id of a method, type or field is remembered on its declaration node, so that resolving the same declaration
+/// again, as every reference to it does, finds its id without building and hashing its qualified name or signature.
+/// Ids are never reassigned: a key keeps its id for the lifetime of the table, even once nothing refers to it
+/// anymore, unless it is dropped. A dropped key is given a new id if asked for again.
+public final class SymbolTable {
+	private static final DataKey<Symbol> SYMBOL = new DataKey<>() {};
+
+	private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+	private final List<@Nullable String> keys = new ArrayList<>();
+
+	/// The id of a declaration in a table, as remembered on its node. Keys are equal by class, so the node of a
+	/// declaration shared by several tables only remembers its id in the last table asking for it.
+	private record Symbol(SymbolTable table, int id) {}
+
+	/// Returns the id of `key`, assigning it the next one if it has none.
+	public int id(String key) {
+		Integer id = ids.get(key);
+		if (id != null)
+			return id;
+		synchronized (keys) {
+			return ids.computeIfAbsent(key, _ -> {
+				keys.add(key);
+				return keys.size() - 1;
+			});
+		}
+	}
+
+	/// Returns the id of the qualified signature of `method`.
+	public int id(ResolvedMethodDeclaration method) {
+		if (!(method.toAst().orElse(null) instanceof Node node))
+			return id(method.getQualifiedSignature());
+		return id(node, method::getQualifiedSignature);
+	}
+
+	/// Returns the id of the qualified name of `type` if it is declared in source, assigning it one if it has none,
+	/// or else its id if it has one or `-1`, as types which aren't declared in source are never registered.
+	public int id(ResolvedReferenceTypeDeclaration type) {
+		if (!(type.toAst().orElse(null) instanceof Node node))
+			return find(type.getId());
+		return id(node, type::getId);
+	}
+
+	/// Returns the id of `field` as registered, its declaring type followed by its name, if it is declared in source,
+	/// assigning it one if it has none, or else its id if it has one or `-1`.
+	public int id(ResolvedFieldDeclaration field) {
+		if (!(field instanceof JavaParserFieldDeclaration declaration))
+			return find(field.declaringType().getId() + "." + field.getName());
+		return id(declaration.getVariableDeclarator(), () -> field.declaringType().getId() + "." + field.getName());
+	}
+
+	/// Returns the id of `key`, as remembered on `node` unless it isn't yet or its key was dropped since.
+	private int id(Node node, Supplier<String> key) {
+		synchronized (node) {
+			if (node.findData(SYMBOL).orElse(null) instanceof Symbol symbol
+				&& symbol.table() == this
+				&& key(symbol.id()) != null)
+				return symbol.id();
+			int id = id(key.get());
+			node.setData(SYMBOL, new Symbol(this, id));
+			return id;
+		}
+	}
+
+	/// Returns the id of `key`, or `-1` if it has none.
+	public int find(String key) {
+		Integer id = ids.get(key);
+		return id == null ? -1 : id;
+	}
+
+	/// Returns the key of `id`, or `null` if it has none or if it was dropped.
+	public @Nullable String key(int id) {
+		synchronized (keys) {
+			return id >= 0 && id < keys.size() ? keys.get(id) : null;
+		}
+	}
+
+	/// Forgets the key of `id`, which is never given to another key. Nodes still remembering `id` are given a new id
+	/// when asked for it again.
+	public void drop(int id) {
+		synchronized (keys) {
+			if (key(id) instanceof String key) {
+				ids.remove(key);
+				keys.set(id, null);
+			}
+		}
+	}
+
+	public int size() {
+		synchronized (keys) {
+			return keys.size();
+		}
+	}
+
+	/// Values indexed by the ids of a [SymbolTable], read without locking.
+	public static final class Values<T> {
+		private volatile AtomicReferenceArray<@Nullable T> values;
+
+		public Values() {
+			this(new AtomicReferenceArray<>(1024));
+		}
+
+		private Values(AtomicReferenceArray<@Nullable T> values) {
+			this.values = values;
+		}
+
+		/// Returns the value of `id`, or `null` if it has none or if `id` is negative.
+		public @Nullable T get(int id) {
+			AtomicReferenceArray<@Nullable T> values = this.values;
+			return id >= 0 && id < values.length() ? values.get(id) : null;
+		}
+
+		public synchronized void put(int id, T value) {
+			grow(id);
+			values.set(id, value);
+		}
+
+		/// Returns the value of `id`, first setting it to the value supplied if it has none.
+		public T computeIfAbsent(int id, Supplier<T> supplier) {
+			T value = get(id);
+			if (value != null)
+				return value;
+			synchronized (this) {
+				value = get(id);
+				if (value == null)
+					put(id, value = supplier.get());
+				return value;
+			}
+		}
+
+		public synchronized void remove(int id) {
+			if (id >= 0 && id < values.length())
+				values.set(id, null);
+		}
+
+		public synchronized void removeIf(Predicate<T> filter) {
+			for (int id = 0; id < values.length(); id++) {
+				T value = values.get(id);
+				if (value != null && filter.test(value))
+					values.set(id, null);
+			}
+		}
+
+		/// Calls `action` with every id which has a value, in increasing order.
+		public void forEach(BiConsumer<Integer, T> action) {
+			AtomicReferenceArray<@Nullable T> values = this.values;
+			for (int id = 0; id < values.length(); id++) {
+				T value = values.get(id);
+				if (value != null)
+					action.accept(id, value);
+			}
+		}
+
+		public synchronized Values<T> copy() {
+			return new Values<>(copyOf(values, values.length()));
+		}
+
+		/// Replaces every value with those of `other`.
+		public synchronized void set(Values<T> other) {
+			AtomicReferenceArray<@Nullable T> source = other.values;
+			values = copyOf(source, source.length());
+		}
+
+		private void grow(int id) {
+			int length = values.length();
+			if (id < length)
+				return;
+			while (length <= id)
+				length *= 2;
+			values = copyOf(values, length);
+		}
+
+		private static <T> AtomicReferenceArray<@Nullable T> copyOf(AtomicReferenceArray<@Nullable T> values, int length) {
+			AtomicReferenceArray<@Nullable T> copy = new AtomicReferenceArray<>(length);
+			for (int i = 0; i < values.length(); i++)
+				copy.set(i, values.get(i));
+			return copy;
+		}
+	}
+}
@@ -1,15 +1,55 @@
 package java2rust.rust;
 
-import com.github.javaparser.resolution.types.ResolvedType;
+import com.github.javaparser.ast.Node;
 import java2rust.JavaTranspiler;
+import org.jspecify.annotations.Nullable;
 
+import java.io.IOException;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 public interface IRustFunction {
 	RustItem item();
 	RustParams params();
 	RustCalls calls();
-	Set<ResolvedType> thrown();
+	/// Returns the descriptions of the types this function may throw, which hold no resolved declaration.
+	Set<String> thrown();
 
-	void analyze(JavaTranspiler transpiler);
+	/// Links the calls of this function and resolves the exceptions it declares, ahead of the propagation of
+	/// thrown types through the call graph.
+	void analyzeCalls(JavaTranspiler transpiler);
+
+	/// Analyzes this function, rendering its body.
+	default void analyze(JavaTranspiler transpiler) {
+		analyzeSignature(transpiler);
+		render(transpiler);
+	}
+
+	/// Analyzes this function but its body, which is left to [#render(JavaTranspiler)].
+	void analyzeSignature(JavaTranspiler transpiler);
+
+	/// Renders the body of this function, reading the [java2rust.Bindings] of its nodes.
+	void render(JavaTranspiler transpiler);
+
+	/// Returns the body of this function if it is rendered through bindings, or `null`.
+	@Nullable Node body();
+
+	/// Drops the declaration of this function once it is analyzed, keeping only what analysis rendered.
+	void release();
+
+	/// Returns a comment listing the types this function may throw, in a stable order, or an empty string.
+	default String describeThrown() {
+		if (thrown().isEmpty())
+			return "";
+		String types = thrown()
+			.stream()
+			.sorted()
+			.collect(Collectors.joining(" | "));
+		return " /* thrown(%s) */".formatted(types);
+	}
+
+	/// Writes the Rust source of this function.
+	default void emit(RustWriter out) throws IOException {
+		out.print(toString());
+	}
 }
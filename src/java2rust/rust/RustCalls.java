@@ -1,38 +1,57 @@
 package java2rust.rust;
 
 import com.github.javaparser.ast.expr.Expression;
-import com.github.javaparser.ast.expr.MethodCallExpr;
 import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
 import com.github.javaparser.resolution.declarations.ResolvedValueDeclaration;
 import com.github.javaparser.utils.Pair;
 import java2rust.JavaTranspiler;
 
 import java.util.HashSet;
-import java.util.Objects;
 import java.util.Set;
 
 public class RustCalls {
+	/// The function making these calls.
+	public final IRustFunction owner;
 	public final Set<IRustFunction> callers = new HashSet<>();
 	public final Set<IRustFunction> callees = new HashSet<>();
 	private final Set<ResolvedMethodDeclaration> unresolvedCalls = new HashSet<>();
 
+	public RustCalls(IRustFunction owner) {
+		this.owner = owner;
+	}
+
+	/// Links the calls collected so far to the registered methods, registering the owner as their caller.
 	public void analyze(JavaTranspiler transpiler) {
-		callees.clear();
-		unresolvedCalls
-			.stream()
-			.map(transpiler::method)
-			.filter(Objects::nonNull)
-			.forEach(callees::add);
+		for (ResolvedMethodDeclaration call : unresolvedCalls) {
+			RustMethod callee = transpiler.method(call);
+			if (callee != null && callees.add(callee))
+				callee.calls().addCaller(owner);
+		}
 		unresolvedCalls.clear();
-		callees.forEach(this::addCaller);
+	}
+
+	/// Unregisters the owner from the callers of its callees, as it is being discarded.
+	public void detach() {
+		for (IRustFunction callee : callees)
+			callee.calls().callers.remove(owner);
+	}
+
+	/// Unlinks the owner from its callers and callees both ways, once the types it throws are propagated and it is
+	/// spilled, so that neither keeps the other alive.
+	public void unlink() {
+		detach();
+		for (IRustFunction caller : callers)
+			caller.calls().callees.remove(owner);
+		callers.clear();
+		callees.clear();
 	}
 
 	public void addCaller(IRustFunction caller) {
 		callers.add(caller);
 	}
 
-	public void addCallee(MethodCallExpr expr) {
+	public void addCallee(ResolvedMethodDeclaration callee) {
 		//TODO: propagate mut self from method call to scope (target)
-		unresolvedCalls.add(expr.resolve());
+		unresolvedCalls.add(callee);
 	}
 }
@@ -1,25 +1,29 @@
 package java2rust.rust;
 
+import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.body.ConstructorDeclaration;
 import com.github.javaparser.ast.type.ReferenceType;
 import com.github.javaparser.resolution.declarations.ResolvedConstructorDeclaration;
 import com.github.javaparser.resolution.types.ResolvedType;
 import java2rust.JavaTranspiler;
+import java2rust.Resolution;
+import org.jspecify.annotations.Nullable;
 
+import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 public class RustConstructor implements IRustFunction {
-	public final ConstructorDeclaration java;
-	public final ResolvedConstructorDeclaration resolved;
+	/// The declaration, until released once this constructor is generated.
+	public @Nullable ConstructorDeclaration java;
+	public @Nullable ResolvedConstructorDeclaration resolved;
 	public final String id;
 	public final RustVisibility visibility;
 	public final String name;
 	public final RustTyParams typarams = new RustTyParams();
 	private final RustParams params;
-	private final Set<ResolvedType> thrown = new HashSet<>();
-	private final RustCalls calls = new RustCalls();
+	private final Set<String> thrown = new HashSet<>();
+	private final RustCalls calls = new RustCalls(this);
 	public RustItem item;
 	private String returnType;
 	private String body;
@@ -38,9 +42,21 @@ public class RustConstructor implements IRustFunction {
 		params = new RustParams(null, java.getParameters());
 	}
 
+	@Override
+	public void emit(RustWriter out) throws IOException {
+		out.print(visibility);
+		out.print("fn ");
+		out.print(name);
+		out.print(typarams);
+		out.print(params);
+		out.print(describeThrown());
+		out.print(returnType);
+		out.print(body);
+	}
+
 	@Override
 	public String toString() {
-		return visibility + "fn " + name + typarams + params + returnType + body;
+		return visibility + "fn " + name + typarams + params + describeThrown() + returnType + body;
 	}
 
 	@Override
@@ -57,30 +73,43 @@ public class RustConstructor implements IRustFunction {
 	}
 
 	@Override
-	public Set<ResolvedType> thrown() {
+	public Set<String> thrown() {
 		return thrown;
 	}
 
-	public void analyze(JavaTranspiler transpiler) {
+	public void analyzeCalls(JavaTranspiler transpiler) {
+		calls.analyze(transpiler);
+		for (ReferenceType ty : java.getThrownExceptions()) {
+			Resolution<ResolvedType> resolution = transpiler.resolve(ty);
+			if (resolution instanceof Resolution.Failed<ResolvedType> failed)
+				transpiler.diagnostics.warning("Couldn't resolve thrown type", failed.reason());
+			else if (resolution.orNull() instanceof ResolvedType resolved)
+				thrown.add(transpiler.interner.intern(resolved.describe()));
+		}
+	}
+
+	public void analyzeSignature(JavaTranspiler transpiler) {
 		typarams.analyze(resolved, transpiler);
 		params.analyze(transpiler);
-		calls.analyze(transpiler);
-		// Assign all thrown errors
-		for (IRustFunction callee : calls.callees)
-			thrown.addAll(callee.thrown());
 		// Method analysis
 		String successType = transpiler.describe(resolved.declaringType());
 		returnType = " -> %s ".formatted(successType);
+	}
+
+	public void render(JavaTranspiler transpiler) {
 		//TODO: body should start with `let mut self = MyType {}` and end with `self`
 		body = transpiler.describe(java.getBody(), this);
-		for (ReferenceType ty : java.getThrownExceptions())
-			thrown.add(ty.resolve());
-		if (!thrown.isEmpty()) {
-			String errorType = thrown
-				.stream()
-				.map(ResolvedType::describe)
-				.collect(Collectors.joining(" | "));
-			returnType = " /* thrown(%s) */%s".formatted(errorType, returnType);
-		}
+	}
+
+	@Override
+	public @Nullable Node body() {
+		return java == null ? null : java.getBody();
+	}
+
+	@Override
+	public void release() {
+		java = null;
+		resolved = null;
+		params.release();
 	}
 }
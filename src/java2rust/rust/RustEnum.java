@@ -7,31 +7,45 @@ import com.github.javaparser.resolution.declarations.ResolvedEnumDeclaration;
 import java2rust.JavaTranspiler;
 import org.jspecify.annotations.Nullable;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 public class RustEnum extends RustItem {
-	public final EnumDeclaration java;
-	public final ResolvedEnumDeclaration resolved;
+	/// The declaration, until released once this item is generated.
+	public @Nullable EnumDeclaration java;
+	public @Nullable ResolvedEnumDeclaration resolved;
+	private final String id;
 
 	public final List<RustField> fields = new ArrayList<>();
 
 	RustEnum(EnumDeclaration java, RustPackage module) {
 		super(java.getNameAsString(), module, RustVisibility.pub(java.isPublic()));
 		this.java = java;
-		this.resolved = java.resolve();
+		ResolvedEnumDeclaration resolved = java.resolve();
+		this.resolved = resolved;
+		id = resolved.getId();
 	}
 
 	@Override
-	public void analyze(JavaTranspiler transpiler) {
-		super.analyze(transpiler);
+	public void analyzeDeclarations(JavaTranspiler transpiler) {
+		super.analyzeDeclarations(transpiler);
 		for (RustField field : fields)
 			field.analyze(transpiler);
 	}
 
 	@Override
 	public String id() {
-		return resolved.getId();
+		return id;
+	}
+
+	@Override
+	public void release() {
+		super.release();
+		for (RustField field : fields)
+			field.release();
+		java = null;
+		resolved = null;
 	}
 
 	public String path() {
@@ -46,27 +60,23 @@ public class RustEnum extends RustItem {
 	}
 
 	@Override
-	public String toString() {
-		StringBuilder sb = new StringBuilder();
-
-		sb.append(visibility);
-		sb.append("enum ");
-		sb.append(name);
+	public void emit(RustWriter out) throws IOException {
+		out.print(visibility);
+		out.print("enum ");
+		out.print(name);
 
 		if (fields.isEmpty()) {
-			sb.append(';');
-			return sb.toString();
+			out.print(';');
+			return;
 		}
 
-		sb.append(" {\n");
+		out.print(" {\n");
 		for (RustField field : fields) {
-			sb.append('\t');
-			sb.append(field);
-			sb.append(",\n");
+			out.print('\t');
+			out.print(field);
+			out.print(",\n");
 		}
-		sb.append('}');
-
-		return sb.toString();
+		out.print('}');
 	}
 }
 
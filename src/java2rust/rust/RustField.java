@@ -9,13 +9,14 @@ import org.jspecify.annotations.Nullable;
 public class RustField {
 	//TODO: modifiers
 	public final String name;
-	public final Type javaType;
-	public final @Nullable Expression javaInitializer;
+	/// The declaration, until released once this field is generated.
+	public @Nullable Type javaType;
+	public @Nullable Expression javaInitializer;
 	public String rustType;
 	public String rustInitializer;
 
 	RustField(String name, Type javaType, @Nullable Expression javaInitializer) {
-		this.name = Java2Rust.camelCaseToSnakeCase(name);
+		this.name = Java2Rust.rustName(name);
 		this.javaType = javaType;
 		this.javaInitializer = javaInitializer;
 	}
@@ -26,6 +27,16 @@ public class RustField {
 			rustInitializer = transpiler.describe(javaInitializer);
 	}
 
+	/// Drops the declaration of this field, rendering it first if it wasn't analyzed.
+	public void release() {
+		if (rustType == null)
+			rustType = javaType.toString();
+		if (rustInitializer == null && javaInitializer != null)
+			rustInitializer = javaInitializer.toString();
+		javaType = null;
+		javaInitializer = null;
+	}
+
 	@Override
 	public String toString() {
 		String type = rustType == null ? javaType.toString() : rustType;
@@ -5,11 +5,12 @@ import com.github.javaparser.resolution.declarations.ResolvedClassDeclaration;
 import com.github.javaparser.resolution.declarations.ResolvedRecordDeclaration;
 import com.github.javaparser.resolution.types.ResolvedReferenceType;
 import java2rust.JavaTranspiler;
+import java2rust.Resolution;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.StringJoiner;
 
 public class RustImpls {
 	private final RustItem item;
@@ -27,11 +28,11 @@ public class RustImpls {
 	}
 
 	public void analyze(ResolvedClassDeclaration decl, JavaTranspiler transpiler) {
-		try {
-			analyze(decl.getAllInterfaces(), transpiler);
-		} catch (Throwable e) {
-			System.err.printf("In RustImpl analysis: %s\n", e.getLocalizedMessage());
-		}
+		Resolution<List<ResolvedReferenceType>> interfaces = Resolution.of(decl::getAllInterfaces);
+		if (interfaces instanceof Resolution.Failed<List<ResolvedReferenceType>> failed)
+			transpiler.diagnostics.warning("In RustImpl analysis", failed.reason());
+		else
+			analyze(interfaces.orNull(), transpiler);
 	}
 
 	private void analyze(
@@ -43,7 +44,7 @@ public class RustImpls {
 			try {
 				traits.add(transpiler.describe(i));
 			} catch (Throwable e) {
-				System.err.printf("In RustImpl analysis: %s\n", e.getLocalizedMessage());
+				transpiler.diagnostics.warning("In RustImpl analysis", Resolution.describe(e));
 				problems.add("%s".formatted(e.getMessage()));
 			}
 		}
@@ -55,25 +56,27 @@ public class RustImpls {
 			analyze(decl.getAllInterfaces(), transpiler);
 	}
 
-	@Override
-	public String toString() {
-		StringBuilder sb = new StringBuilder();
-
-		StringJoiner traits = new StringJoiner("\n\n");
-		for (String trait : this.traits)
-			traits.add("impl%s %s for %s%s {}".formatted(
+	public void emit(RustWriter out) throws IOException {
+		String separator = "";
+		for (String trait : traits) {
+			out.print(separator);
+			out.print("impl%s %s for %s%s {}".formatted(
 				params.toBounds(),
 				trait,
 				item.name,
 				params.toImpl()));
-		sb.append(traits);
+			separator = "\n\n";
+		}
 
-		StringJoiner problems = new StringJoiner("\n", "/* ", " */");
-		problems.setEmptyValue("");
-		for (String problem : this.problems)
-			problems.add(problem);
-		sb.append(problems);
+		if (!problems.isEmpty()) {
+			out.print("/* ");
+			out.print(String.join("\n", problems));
+			out.print(" */");
+		}
+	}
 
-		return sb.toString();
+	@Override
+	public String toString() {
+		return RustWriter.render(this::emit);
 	}
 }
@@ -2,9 +2,11 @@ package java2rust.rust;
 
 import com.github.javaparser.ast.ImportDeclaration;
 import java2rust.JavaTranspiler;
+import org.jspecify.annotations.Nullable;
 
 public final class RustImport {
-	public final ImportDeclaration java;
+	/// The declaration, until released once this import is generated.
+	public @Nullable ImportDeclaration java;
 
 	public final RustPackage module;
 	private String path;
@@ -19,6 +21,10 @@ public final class RustImport {
 		path = java.getNameAsString().replace(".", "::");
 	}
 
+	public void release() {
+		java = null;
+	}
+
 	@Override
 	public String toString() {
 		return "use %s;".formatted(path);
@@ -1,23 +1,24 @@
 package java2rust.rust;
 
+import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.body.BodyDeclaration;
 import com.github.javaparser.ast.body.ConstructorDeclaration;
 import com.github.javaparser.ast.body.InitializerDeclaration;
 import com.github.javaparser.ast.body.TypeDeclaration;
 import com.github.javaparser.ast.type.ReferenceType;
 import com.github.javaparser.resolution.declarations.ResolvedConstructorDeclaration;
-import com.github.javaparser.resolution.types.ResolvedType;
 import java2rust.JavaTranspiler;
+import org.jspecify.annotations.Nullable;
 
 import java.util.HashSet;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 public class RustInitializer implements IRustFunction {
-	public final InitializerDeclaration java;
+	/// The declaration, until released once this initializer is generated.
+	public @Nullable InitializerDeclaration java;
 	public final String id;
-	private final Set<ResolvedType> thrown = new HashSet<>();
-	private final RustCalls calls = new RustCalls();
+	private final Set<String> thrown = new HashSet<>();
+	private final RustCalls calls = new RustCalls(this);
 	public RustItem item;
 	private String body;
 
@@ -33,7 +34,7 @@ public class RustInitializer implements IRustFunction {
 
 	@Override
 	public String toString() {
-		return "init %s".formatted(java.getBody());
+		return "init %s".formatted(body == null ? java.getBody() : body);
 	}
 
 	@Override
@@ -50,15 +51,31 @@ public class RustInitializer implements IRustFunction {
 	}
 
 	@Override
-	public Set<ResolvedType> thrown() {
+	public Set<String> thrown() {
 		return thrown;
 	}
 
-	public void analyze(JavaTranspiler transpiler) {
+	public void analyzeCalls(JavaTranspiler transpiler) {
 		calls.analyze(transpiler);
-		// Assign all thrown errors
-		for (IRustFunction callee : calls.callees)
-			thrown.addAll(callee.thrown());
+	}
+
+	public void analyzeSignature(JavaTranspiler transpiler) {}
+
+	/// Renders the body of this initializer as its Java source, which resolves nothing.
+	public void render(JavaTranspiler transpiler) {
+		body = java.getBody().toString();
+	}
+
+	@Override
+	public @Nullable Node body() {
+		return null;
+	}
+
+	@Override
+	public void release() {
+		if (body == null)
+			body = java.getBody().toString();
+		java = null;
 	}
 }
 
@@ -3,13 +3,18 @@ package java2rust.rust;
 import com.github.javaparser.resolution.declarations.ResolvedInterfaceDeclaration;
 import com.github.javaparser.resolution.declarations.ResolvedTypeParameterDeclaration;
 import java2rust.JavaTranspiler;
+import java2rust.Resolution;
+import org.jspecify.annotations.Nullable;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.StringJoiner;
 
 public class RustInterface extends RustItem {
-	public final ResolvedInterfaceDeclaration decl;
+	/// The declaration, until released once this item is generated.
+	public @Nullable ResolvedInterfaceDeclaration decl;
+	private final String id;
 	public final List<RustField> fields = new ArrayList<>();
 	public final List<String> params = new ArrayList<>();
 
@@ -21,6 +26,7 @@ public class RustInterface extends RustItem {
 	) {
 		super(name, module, visibility);
 		this.decl = decl;
+		id = decl.getId();
 	}
 
 	//	/// Creates and returns a new field.
@@ -31,8 +37,8 @@ public class RustInterface extends RustItem {
 	//	}
 
 	@Override
-	public void analyze(JavaTranspiler transpiler) {
-		super.analyze(transpiler);
+	public void analyzeDeclarations(JavaTranspiler transpiler) {
+		super.analyzeDeclarations(transpiler);
 		for (RustField field : fields)
 			field.analyze(transpiler);
 
@@ -51,7 +57,7 @@ public class RustInterface extends RustItem {
 				sb.append(bounds);
 				params.add(sb.toString());
 			} catch (Throwable e) {
-				System.err.println(e);
+				transpiler.diagnostics.warning("In type parameter bounds", Resolution.describe(e));
 				params.add("/* %s */ %s".formatted(e.getMessage(), param.getName()));
 			}
 		}
@@ -59,7 +65,15 @@ public class RustInterface extends RustItem {
 
 	@Override
 	public String id() {
-		return decl.getId();
+		return id;
+	}
+
+	@Override
+	public void release() {
+		super.release();
+		for (RustField field : fields)
+			field.release();
+		decl = null;
 	}
 
 	public String path() {
@@ -67,30 +81,27 @@ public class RustInterface extends RustItem {
 	}
 
 	@Override
-	public String toString() {
-		StringBuilder sb = new StringBuilder();
-
-		sb.append(visibility);
-		sb.append("trait ");
-		sb.append(name);
+	public void emit(RustWriter out) throws IOException {
+		out.print(visibility);
+		out.print("trait ");
+		out.print(name);
 
-		StringJoiner params = new StringJoiner(", ", "<", ">");
-		params.setEmptyValue("");
-		for (String param : this.params)
-			params.add(param);
-		sb.append(params);
+		if (!params.isEmpty()) {
+			out.print('<');
+			out.print(String.join(", ", params));
+			out.print('>');
+		}
 
 		if (fields.isEmpty()) {
-			sb.append(';');
-			return sb.toString();
+			out.print(';');
+			return;
 		}
-		sb.append(" {\n");
+		out.print(" {\n");
 		for (RustField field : fields) {
-			sb.append('\t');
-			sb.append(field);
-			sb.append(",\n");
+			out.print('\t');
+			out.print(field);
+			out.print(",\n");
 		}
-		sb.append('}');
-		return sb.toString();
+		out.print('}');
 	}
 }
@@ -6,6 +6,7 @@ import com.github.javaparser.ast.type.Type;
 import java2rust.JavaTranspiler;
 import org.jspecify.annotations.Nullable;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -24,16 +25,39 @@ public abstract class RustItem {
 	}
 
 	public void analyze(JavaTranspiler transpiler) {
+		analyzeDeclarations(transpiler);
+		for (IRustFunction method : methods)
+			method.render(transpiler);
+	}
+
+	/// Analyzes this item but the bodies of its functions, which are left to [IRustFunction#render(JavaTranspiler)].
+	public void analyzeDeclarations(JavaTranspiler transpiler) {
 		for (RustStatic field : statics)
 			field.analyze(transpiler);
 		for (IRustFunction method : methods)
-			method.analyze(transpiler);
+			method.analyzeSignature(transpiler);
+	}
+
+	/// Drops the declarations of this item once it is generated, keeping only what analysis rendered.
+	public void release() {
+		for (RustStatic field : statics)
+			field.release();
+		for (IRustFunction method : methods)
+			method.release();
 	}
 
 	public abstract String id();
 
 	public abstract String path();
 
+	/// Writes the Rust source of this item.
+	public abstract void emit(RustWriter out) throws IOException;
+
+	@Override
+	public String toString() {
+		return RustWriter.render(this::emit);
+	}
+
 	public String name() {
 		return name;
 	}
@@ -2,19 +2,26 @@ package java2rust.rust;
 
 import com.github.javaparser.JavaParser;
 import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
 import com.github.javaparser.StaticJavaParser;
 import com.github.javaparser.ast.CompilationUnit;
-import com.github.javaparser.utils.SourceZip;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
 import java2rust.DeclVisitor;
 import java2rust.JavaTranspiler;
+import java2rust.Metrics;
+import java2rust.OutputManifest;
+import javaparser.ParseCache;
+import javaparser.SourceZipTypeSolver;
 import org.apache.commons.io.FilenameUtils;
 import org.jspecify.annotations.Nullable;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
 
 public final class RustJar {
 	/// A unique identifier for this jar, either a path or registry id.
@@ -29,6 +36,8 @@ public final class RustJar {
 	public final @Nullable RustPackage lib;
 	/// The executable module, if applicable.
 	public final @Nullable RustPackage main;
+	/// The type solver of the sources jar this crate was created from, sharing its parsed units.
+	private final @Nullable SourceZipTypeSolver solver;
 
 	public RustJar(String id, String name, Path path, @Nullable RustPackage lib, @Nullable RustPackage main) {
 		this.id = id;
@@ -36,6 +45,7 @@ public final class RustJar {
 		this.path = path;
 		this.lib = lib;
 		this.main = main;
+		solver = null;
 	}
 
 	/// Adds a new unit to this jar.
@@ -43,27 +53,50 @@ public final class RustJar {
 		units.add(new RustUnit(this, pkg, path));
 	}
 
-	/// Parses a source jar, creating units for each source file within.
-	public RustJar(String id, String name, SourceZip jar) throws IOException {
+	/// Parses the sources concurrently on the pool, then adds their units in the order of `sources`.
+	public void addAll(List<Source> sources, ForkJoinPool pool) {
+		ParserConfiguration config = StaticJavaParser.getParserConfiguration();
+		List<ForkJoinTask<RustUnit>> tasks = new ArrayList<>(sources.size());
+		for (Source source : sources)
+			tasks.add(pool.submit(() -> new RustUnit(this, source.pkg(), source.path(), config)));
+		for (ForkJoinTask<RustUnit> task : tasks) {
+			try {
+				units.add(task.join());
+			} catch (RuntimeException e) {
+				System.err.printf("Couldn't add unit to jar: %s\n", e.getCause() == null ? e : e.getCause());
+			}
+		}
+	}
+
+	/// Creates units for each source file of a sources jar, sharing the units parsed by its type solver.
+	public RustJar(String id, String name, SourceZipTypeSolver solver) throws IOException {
 		this.id = id;
 		this.name = name;
-		this.path = jar.getZipPath();
+		this.path = solver.sources.getZipPath();
 		lib = new RustPackage(name, null, RustVisibility.PUB);
 		main = null;
-		jar.setParserConfiguration(StaticJavaParser.getParserConfiguration());
-		jar.parse((SourceZip.Callback) (relativeZipEntryPath, result) -> {
+		this.solver = solver;
+		solver.parseIfNecessary();
+		// Jars are fingerprinted as a whole, their entries are only ever replaced together.
+		String fingerprint = ParseCache.hash("%s %s %s".formatted(
+			path,
+			Files.size(path),
+			Files.getLastModifiedTime(path)).getBytes());
+		for (Path entry : solver.paths) {
 			RustPackage pkg = lib;
-			for (Path trunk : relativeZipEntryPath)
+			for (Path trunk : entry)
 				pkg = pkg.submodule(FilenameUtils.removeExtension(trunk.toFile().getName()), RustVisibility.PUB);
-			RustUnit unit = new RustUnit(RustJar.this, jar.getZipPath().resolve(relativeZipEntryPath), pkg, result);
-			RustJar.this.units.add(unit);
-		});
+			units.add(new RustUnit(this, path.resolve(entry), pkg, solver.unit(entry), fingerprint));
+		}
 	}
 
 	//TODO: The transpiler will directly parse source Jars and Java files into CompilationUnit and go through DeclVisitor.
 	// Then the analysis can be made on the workspace as a whole.
 	// Then the Rust hierarchy will be written to files.
 
+	/// A source file waiting to be parsed into a unit of `pkg`.
+	public record Source(Path path, RustPackage pkg) {}
+
 	public void preanalyze(JavaTranspiler transpiler) {
 		for (RustUnit unit : units)
 			unit.preanalyze(transpiler);
@@ -74,14 +107,119 @@ public final class RustJar {
 		if (main != null) main.analyze(transpiler);
 	}
 
-	public void generate(Path path) throws IOException {
+	/// Returns a stream of every package of this jar.
+	public Stream<RustPackage> packages() {
+		return Stream.of(lib, main).filter(Objects::nonNull).flatMap(RustPackage::descendants);
+	}
+
+	/// Returns a stream of every item declared in the packages of this jar which aren't up-to-date.
+	public Stream<RustItem> items() {
+		return packages().filter(pkg -> !pkg.upToDate).flatMap(pkg -> pkg.items().stream());
+	}
+
+	/// Drops the parsed source of a unit of this crate and the declarations of its package, once generated.
+	public void release(RustUnit unit) {
+		unit.release();
+		if (solver != null)
+			solver.release(path.relativize(unit.path));
+	}
+
+	/// Drops the units of this crate parsed again by its type solver since they were released.
+	public void releaseSolver() {
+		if (solver != null)
+			solver.release();
+	}
+
+	/// Writes the crate under `path`, emitting its modules as concurrent tasks on `pool`.
+	///
+	/// Every directory is created beforehand, and each module is written to its own file, so the result doesn't
+	/// depend on the order in which the tasks run. Files holding the same content are left untouched, and files
+	/// generated by the previous run for modules which no longer exist are deleted.
+	public void generate(Path path, Metrics metrics, ForkJoinPool pool) throws IOException {
+		generate(path, metrics, pool, null);
+	}
+
+	/// Analyzes and writes the crate under `path` one module at a time, releasing the units of each module once it
+	/// is written, so that only the bodies of a single module are held at once.
+	///
+	/// The calls of the crate must be linked beforehand. Modules are analyzed by [JavaTranspiler#analyze(List)] and
+	/// written in turn, and the types cached by the symbol solver and by the resolution cache of `transpiler` are
+	/// cleared after each of them, as they hold on to the released units.
+	public void stream(Path path, JavaTranspiler transpiler) throws IOException {
+		generate(path, transpiler.metrics, transpiler.pool, transpiler);
+	}
+
+	private void generate(
+		Path path,
+		Metrics metrics,
+		ForkJoinPool pool,
+		@Nullable JavaTranspiler streaming
+	) throws IOException {
 		Path crate = path.resolve(name);
+		OutputManifest previous = OutputManifest.load(crate);
+		OutputManifest manifest = new OutputManifest(crate);
 		Path src = crate.resolve("src");
-		Files.createDirectories(src);
+		Map<Path, RustPackage> modules = new LinkedHashMap<>();
 		if (lib != null)
-			lib.generate(src);
+			lib.files(src, modules);
 		if (main != null)
-			main.generate(src);
+			main.files(src, modules);
+
+		// Sorted so that parents are created before their children, each only once.
+		Set<Path> directories = new TreeSet<>();
+		directories.add(src);
+		for (Path file : modules.keySet())
+			directories.add(file.getParent());
+		for (Path directory : directories)
+			Files.createDirectories(directory);
+
+		Map<RustPackage, List<RustUnit>> units = new HashMap<>();
+		if (streaming != null)
+			for (RustUnit unit : this.units)
+				units.computeIfAbsent(unit.pkg, _ -> new ArrayList<>()).add(unit);
+
+		List<Path> files = new ArrayList<>();
+		List<ForkJoinTask<?>> tasks = new ArrayList<>();
+		modules.forEach((file, pkg) -> {
+			if (pkg.upToDate) {
+				manifest.keep(previous, file);
+				units.getOrDefault(pkg, List.of()).forEach(this::release);
+				return;
+			}
+			files.add(file);
+			tasks.add(ForkJoinTask.adapt(() -> {
+				if (streaming == null) {
+					manifest.put(file, RustWriter.write(file, metrics, pkg::emit));
+					return null;
+				}
+				try {
+					streaming.analyze(List.of(pkg));
+					if (streaming.trackReferences)
+						units.getOrDefault(pkg, List.of()).forEach(unit -> unit.reference(streaming));
+					manifest.put(file, RustWriter.write(file, metrics, pkg::emit));
+				} finally {
+					units.getOrDefault(pkg, List.of()).forEach(this::release);
+					// The facades and the resolution cache hold on to the nodes they resolved, from released units.
+					JavaParserFacade.clearInstances();
+					streaming.resolutions.clear();
+				}
+				return null;
+			}));
+		});
+		boolean concurrent = streaming == null;
+		if (concurrent)
+			tasks.forEach(pool::execute);
+		for (int i = 0; i < tasks.size(); i++) {
+			try {
+				if (concurrent)
+					tasks.get(i).join();
+				else
+					tasks.get(i).invoke();
+			} catch (RuntimeException e) {
+				System.err.printf("Couldn't write %s: %s\n", files.get(i), e.getCause() == null ? e : e.getCause());
+				manifest.keep(previous, files.get(i));
+			}
+		}
 
 		String cargo = """
 		[package]
@@ -92,6 +230,10 @@ public final class RustJar {
 		[dependencies]
 		""".formatted(name);
 		//TODO: version, metadata, dependencies, etc.
-		Files.writeString(crate.resolve("Cargo.toml"), cargo);
+		Path toml = crate.resolve("Cargo.toml");
+		manifest.put(toml, RustWriter.write(toml, metrics, out -> out.print(cargo)));
+
+		manifest.deleteStale(previous, metrics);
+		manifest.save();
 	}
 }
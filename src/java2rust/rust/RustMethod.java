@@ -1,26 +1,30 @@
 package java2rust.rust;
 
+import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.type.ReferenceType;
 import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
 import com.github.javaparser.resolution.types.ResolvedType;
 import java2rust.Java2Rust;
 import java2rust.JavaTranspiler;
+import java2rust.Resolution;
+import org.jspecify.annotations.Nullable;
 
+import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 public class RustMethod implements IRustFunction {
-	public final MethodDeclaration java;
-	public final ResolvedMethodDeclaration resolved;
+	/// The declaration, until released once this method is generated.
+	public @Nullable MethodDeclaration java;
+	public @Nullable ResolvedMethodDeclaration resolved;
 	public final String id;
 	public final RustVisibility visibility;
 	public final String name;
 	public final RustTyParams typarams = new RustTyParams();
 	private final RustParams params;
-	private final Set<ResolvedType> thrown = new HashSet<>();
-	private final RustCalls calls = new RustCalls();
+	private final Set<String> thrown = new HashSet<>();
+	private final RustCalls calls = new RustCalls(this);
 	public RustItem item;
 	private String returnType;
 	private String body;
@@ -31,38 +35,63 @@ public class RustMethod implements IRustFunction {
 		this.resolved = resolved == null ? java.resolve() : resolved;
 		id = this.resolved.getQualifiedSignature();
 		this.visibility = RustVisibility.pub(java.isPublic());
-		this.name = Java2Rust.camelCaseToSnakeCase(java.getNameAsString());
+		this.name = Java2Rust.rustName(java.getNameAsString());
 		params = new RustParams(RustSelf.REF, java.getParameters());
 	}
 
-	public void analyze(JavaTranspiler transpiler) {
+	public void analyzeCalls(JavaTranspiler transpiler) {
+		calls.analyze(transpiler);
+		for (ReferenceType ty : java.getThrownExceptions()) {
+			Resolution<ResolvedType> resolution = transpiler.resolve(ty);
+			if (resolution instanceof Resolution.Failed<ResolvedType> failed)
+				transpiler.diagnostics.warning("Couldn't resolve thrown type", failed.reason());
+			else if (resolution.orNull() instanceof ResolvedType resolved)
+				thrown.add(transpiler.interner.intern(resolved.describe()));
+		}
+	}
+
+	public void analyzeSignature(JavaTranspiler transpiler) {
 		typarams.analyze(resolved, transpiler);
 		params.analyze(transpiler);
-		calls.analyze(transpiler);
-		// Assign all thrown errors
-		for (IRustFunction callee : calls.callees)
-			thrown.addAll(callee.thrown());
 		// Method analysis
 		String successType = transpiler.describe(java.getType());
-		returnType = java.getType().isVoidType() ? " " : " -> %s ".formatted(successType);
+		returnType = java.getType().isVoidType() ? " " : transpiler.interner.intern(" -> %s ".formatted(successType));
+	}
+
+	public void render(JavaTranspiler transpiler) {
 		if (java.getBody().isPresent())
 			body = transpiler.describe(java.getBody().orElse(null), this);
 		else
 			body = ";";
-		for (ReferenceType ty : java.getThrownExceptions())
-			thrown.add(ty.resolve());
-		if (!thrown.isEmpty()) {
-			String errorType = thrown
-				.stream()
-				.map(ResolvedType::describe)
-				.collect(Collectors.joining(" | "));
-			returnType = " /* thrown(%s) */%s".formatted(errorType, returnType);
-		}
+	}
+
+	@Override
+	public @Nullable Node body() {
+		return java == null ? null : java.getBody().orElse(null);
+	}
+
+	@Override
+	public void release() {
+		java = null;
+		resolved = null;
+		params.release();
+	}
+
+	@Override
+	public void emit(RustWriter out) throws IOException {
+		out.print(visibility);
+		out.print("fn ");
+		out.print(name);
+		out.print(typarams);
+		out.print(params);
+		out.print(describeThrown());
+		out.print(returnType);
+		out.print(body);
 	}
 
 	@Override
 	public String toString() {
-		return visibility + "fn " + name + typarams + params + returnType + body;
+		return visibility + "fn " + name + typarams + params + describeThrown() + returnType + body;
 	}
 
 	@Override
@@ -79,7 +108,7 @@ public class RustMethod implements IRustFunction {
 	}
 
 	@Override
-	public Set<ResolvedType> thrown() {
+	public Set<String> thrown() {
 		return thrown;
 	}
 }
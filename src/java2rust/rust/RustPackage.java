@@ -7,12 +7,10 @@ import com.github.javaparser.resolution.declarations.ResolvedInterfaceDeclaratio
 import com.github.javaparser.resolution.declarations.ResolvedRecordDeclaration;
 import java2rust.Java2Rust;
 import java2rust.JavaTranspiler;
-import org.apache.commons.lang3.StringUtils;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Stream;
@@ -22,10 +20,18 @@ public final class RustPackage extends RustItem {
 	private final List<RustImport> imports = new ArrayList<>();
 	private final List<RustPackage> subpackages = new ArrayList<>();
 	private final List<RustItem> items = new ArrayList<>();
+	/// Whether the items of this package are unchanged since the previous run, and can be neither analyzed nor generated.
+	public boolean upToDate;
+	/// The ids under which preanalyzing the unit of this package registered names and methods, which are
+	/// unregistered before it is preanalyzed again.
+	public final Set<Integer> registered = new HashSet<>();
+	/// The ids of the types the unit of this package refers to, by name or through their fields, as collected by
+	/// [RustUnit#reference(JavaTranspiler)] once analyzed.
+	public final Set<String> references = new HashSet<>();
 
 	RustPackage(String name, RustPackage module, RustVisibility visibility) {
 		super(name, module, visibility);
-		path = StringUtils.join(ancestors().map(RustPackage::use).toList().reversed(), "::");
+		path = module == null ? use() : module.path + "::" + name;
 	}
 
 	/// Returns a stream that iterates through parent modules starting at the current module.
@@ -33,6 +39,11 @@ public final class RustPackage extends RustItem {
 		return Stream.iterate(this, Objects::nonNull, m -> m.module);
 	}
 
+	/// Returns a stream of this package followed by all of its subpackages, depth-first.
+	public Stream<RustPackage> descendants() {
+		return Stream.concat(Stream.of(this), subpackages.stream().flatMap(RustPackage::descendants));
+	}
+
 	public String use() {
 		if (module == null)
 			return "crate";
@@ -48,6 +59,13 @@ public final class RustPackage extends RustItem {
 		module.subpackages.remove(this);
 	}
 
+	/// Removes the items and imports declared in this package, keeping its subpackages.
+	public void clear() {
+		items.clear();
+		imports.clear();
+		references.clear();
+	}
+
 	public @Nullable RustPackage parent() {
 		return module;
 	}
@@ -68,14 +86,14 @@ public final class RustPackage extends RustItem {
 			.findFirst();
 		if (existing.isPresent())
 			return existing.get();
-		RustPackage mod = new RustPackage(Java2Rust.camelCaseToSnakeCase(name), this, visibility);
+		RustPackage mod = new RustPackage(Java2Rust.rustName(name), this, visibility);
 		subpackages.add(mod);
 		return mod;
 	}
 
 	/// Creates and returns a local module.
 	public RustPackage mod(String name, RustVisibility visibility) {
-		RustPackage mod = new RustPackage(Java2Rust.camelCaseToSnakeCase(name), this, visibility);
+		RustPackage mod = new RustPackage(Java2Rust.rustName(name), this, visibility);
 		items.add(mod);
 		return mod;
 	}
@@ -138,12 +156,41 @@ public final class RustPackage extends RustItem {
 
 	public void analyze(JavaTranspiler transpiler) {
 		super.analyze(transpiler);
+		if (!upToDate)
+			for (RustItem item : items)
+				item.analyze(transpiler);
+		for (RustPackage mod : subpackages)
+			mod.analyze(transpiler);
+	}
+
+	/// Analyzes this package alone but the bodies of its functions, leaving its items and subpackages to the caller.
+	@Override
+	public void analyzeDeclarations(JavaTranspiler transpiler) {
+		super.analyzeDeclarations(transpiler);
+		for (RustImport imp : imports)
+			imp.analyze(transpiler);
+	}
+
+	/// Analyzes this package and its items, leaving its subpackages to the caller.
+	public void analyzeWithoutSubpackages(JavaTranspiler transpiler) {
+		analyzeWithoutItems(transpiler);
 		for (RustItem item : items)
 			item.analyze(transpiler);
+	}
+
+	/// Analyzes this package alone, leaving its items and subpackages to the caller.
+	public void analyzeWithoutItems(JavaTranspiler transpiler) {
+		super.analyze(transpiler);
+	}
+
+	/// Drops the declarations of this package and of its items, leaving its subpackages to the caller.
+	@Override
+	public void release() {
+		super.release();
+		for (RustItem item : items)
+			item.release();
 		for (RustImport imp : imports)
-			imp.analyze(transpiler);
-		for (RustPackage mod : subpackages)
-			mod.analyze(transpiler);
+			imp.release();
 	}
 
 	@Override
@@ -156,7 +203,8 @@ public final class RustPackage extends RustItem {
 		return path;
 	}
 
-	public void generate(Path parent) {
+	/// Collects the file of this package and of its subpackages, within the `parent` directory, in a stable order.
+	public void files(Path parent, Map<Path, RustPackage> files) {
 		Path dir;
 		Path file;
 
@@ -165,45 +213,35 @@ public final class RustPackage extends RustItem {
 			file = parent.resolve("lib.rs");
 		} else if (subpackages.isEmpty()) {
 			dir = parent;
-			file = parent.resolve(name + ".rs");
+			file = parent.resolve(Java2Rust.unescape(name) + ".rs");
 		} else {
-			dir = parent.resolve(name);
+			dir = parent.resolve(Java2Rust.unescape(name));
 			file = dir.resolve("mod.rs");
 		}
 
-		try {
-			Files.createDirectories(dir);
-			Files.writeString(file, toString());
-		} catch (IOException e) {
-			System.err.println(e.getLocalizedMessage());
-		}
-
+		files.put(file, this);
 		for (RustPackage mod : subpackages)
-			mod.generate(dir);
+			mod.files(dir, files);
 	}
 
 	@Override
-	public String toString() {
-		StringBuilder sb = new StringBuilder();
-
-		if (!subpackages.isEmpty()) {
-			for (RustPackage submodule : subpackages)
-				sb.append("%smod %s;\n".formatted(submodule.visibility, submodule.name));
-		}
+	public void emit(RustWriter out) throws IOException {
+		for (RustPackage submodule : subpackages)
+			out.print("%smod %s;\n".formatted(submodule.visibility, submodule.name));
 
 		if (!imports.isEmpty()) {
-			for (RustImport imp : imports)
-				sb.append("%s\n".formatted(imp.toString()));
-			sb.append("\n");
+			for (RustImport imp : imports) {
+				out.print(imp);
+				out.print('\n');
+			}
+			out.print('\n');
 		}
 
-		if (!items.isEmpty()) {
-			StringJoiner items = new StringJoiner("\n\n");
-			for (RustItem item : this.items)
-				items.add(item.toString());
-			sb.append(items);
+		String separator = "";
+		for (RustItem item : items) {
+			out.print(separator);
+			item.emit(out);
+			separator = "\n\n";
 		}
-
-		return sb.toString();
 	}
 }
@@ -3,17 +3,24 @@ package java2rust.rust;
 import com.github.javaparser.ast.body.Parameter;
 import java2rust.Java2Rust;
 import java2rust.JavaTranspiler;
+import org.jspecify.annotations.Nullable;
 
 public class RustParam {
-	public final Parameter java;
+	/// The declaration, until released once this parameter is generated.
+	public @Nullable Parameter java;
+	/// The Java name of this parameter.
+	public final String javaName;
 	public boolean isMutable;
 	private final String name;
+	private final boolean isReference;
 	private String type;
 	private String cache;
 
 	public RustParam(Parameter java) {
 		this.java = java;
-		name = Java2Rust.camelCaseToSnakeCase(java.getNameAsString());
+		javaName = java.getNameAsString();
+		name = Java2Rust.rustName(javaName);
+		isReference = java.getType().isReferenceType();
 	}
 
 	public void analyze(JavaTranspiler transpiler) {
@@ -27,12 +34,16 @@ public class RustParam {
 			sb.append("mut ");
 		sb.append(name);
 		sb.append(": ");
-		if (java.getType().isReferenceType())
+		if (isReference)
 			sb.append("&");
 		sb.append(type);
 		return sb.toString();
 	}
 
+	public void release() {
+		java = null;
+	}
+
 	@Override
 	public String toString() {
 		if (cache == null)
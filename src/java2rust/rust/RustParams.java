@@ -44,11 +44,16 @@ public class RustParams {
 	public RustParam java(String name) {
 		return params
 			.stream()
-			.filter(p -> Objects.equals(p.java.getNameAsString(), name))
+			.filter(p -> Objects.equals(p.javaName, name))
 			.findFirst()
 			.orElse(null);
 	}
 
+	public void release() {
+		for (RustParam param : params)
+			param.release();
+	}
+
 	@Override
 	public String toString() {
 		if (cache == null)
@@ -6,12 +6,14 @@ import com.github.javaparser.resolution.declarations.ResolvedRecordDeclaration;
 import java2rust.JavaTranspiler;
 import org.jspecify.annotations.Nullable;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.StringJoiner;
 
 public class RustRecord extends RustItem {
-	public final ResolvedRecordDeclaration decl;
+	/// The declaration, until released once this item is generated.
+	public @Nullable ResolvedRecordDeclaration decl;
+	private final String id;
 	public final List<RustField> fields = new ArrayList<>();
 	public final RustImpls impls;
 	public final RustTyParams typarams = new RustTyParams();
@@ -24,12 +26,13 @@ public class RustRecord extends RustItem {
 	) {
 		super(name, module, visibility);
 		this.decl = decl;
+		id = decl.getId();
 		this.impls = new RustImpls(this, typarams);
 	}
 
 	@Override
-	public void analyze(JavaTranspiler transpiler) {
-		super.analyze(transpiler);
+	public void analyzeDeclarations(JavaTranspiler transpiler) {
+		super.analyzeDeclarations(transpiler);
 		for (RustField field : fields)
 			field.analyze(transpiler);
 		typarams.analyze(decl, transpiler);
@@ -38,7 +41,15 @@ public class RustRecord extends RustItem {
 
 	@Override
 	public String id() {
-		return decl.getId();
+		return id;
+	}
+
+	@Override
+	public void release() {
+		super.release();
+		for (RustField field : fields)
+			field.release();
+		decl = null;
 	}
 
 	public String path() {
@@ -53,45 +64,44 @@ public class RustRecord extends RustItem {
 	}
 
 	@Override
-	public String toString() {
-		StringBuilder sb = new StringBuilder();
-
-		sb.append("#[derive(Debug, Hash, Eq, PartialEq)]\n");
-		sb.append(visibility);
-		sb.append("struct ");
-		sb.append(name);
-		sb.append(typarams);
+	public void emit(RustWriter out) throws IOException {
+		out.print("#[derive(Debug, Hash, Eq, PartialEq)]\n");
+		out.print(visibility);
+		out.print("struct ");
+		out.print(name);
+		out.print(typarams);
 
 		if (fields.isEmpty()) {
-			sb.append(';');
-			return sb.toString();
+			out.print(';');
+			return;
 		}
 
-		sb.append(" {\n");
+		out.print(" {\n");
 		for (RustField field : fields) {
-			sb.append('\t');
-			sb.append(field);
-			sb.append(",\n");
+			out.print('\t');
+			out.print(field);
+			out.print(",\n");
+		}
+		out.print('}');
+
+		if (!statics.isEmpty() || !methods.isEmpty()) {
+			out.print("\n\nimpl%s %s {\n".formatted(typarams, name));
+			String separator = "";
+			for (RustStatic field : statics) {
+				out.print(separator).print('\t').indent().print(field).unindent();
+				separator = "\n\n";
+			}
+			for (IRustFunction method : methods) {
+				out.print(separator).emit(method::emit);
+				separator = "\n\n";
+			}
+			out.print('}');
 		}
-		sb.append('}');
-
-		StringJoiner impl = new StringJoiner(
-			"\n\n",
-			"\n\nimpl%s %s {\n".formatted(typarams, name),
-			"}");
-		impl.setEmptyValue("");
-		for (RustStatic field : statics)
-			impl.add("\t" + field.toString().replace("\n", "\n\t"));
-		for (IRustFunction method : methods)
-			impl.add(method.toString());
-		sb.append(impl);
 
 		if (!impls.isEmpty()) {
-			sb.append("\n\n");
-			sb.append(impls);
+			out.print("\n\n");
+			impls.emit(out);
 		}
-
-		return sb.toString();
 	}
 }
 
@@ -3,7 +3,9 @@ package java2rust.rust;
 import com.github.javaparser.ast.body.FieldDeclaration;
 import com.github.javaparser.ast.body.VariableDeclarator;
 import com.github.javaparser.resolution.declarations.ResolvedFieldDeclaration;
+import java2rust.Java2Rust;
 import java2rust.JavaTranspiler;
+import org.jspecify.annotations.Nullable;
 
 public class RustStatic {
 	public final RustItem parent;
@@ -11,18 +13,20 @@ public class RustStatic {
 	/// The Rust name of this static field.
 	public final String name;
 	public final String id;
-	public final VariableDeclarator java;
-	public final ResolvedFieldDeclaration resolved;
+	/// The declaration, until released once this static field is generated.
+	public @Nullable VariableDeclarator java;
+	public @Nullable ResolvedFieldDeclaration resolved;
 	public String rustType;
 	public String rustInitializer;
 
 	public RustStatic(RustItem parent, FieldDeclaration field, VariableDeclarator declarator) {
 		this.parent = parent;
 		this.visibility = RustVisibility.pub(field.isPublic());
-		name = declarator.getNameAsString();
+		name = Java2Rust.escape(declarator.getNameAsString());
 		//TODO: Pass other modifiers from FieldDeclaration
 		java = declarator;
-		resolved = declarator.resolve().asField();
+		ResolvedFieldDeclaration resolved = declarator.resolve().asField();
+		this.resolved = resolved;
 		rustType = declarator.getTypeAsString();
 		id = resolved.declaringType().getId() + "." + declarator.getNameAsString();
 	}
@@ -33,6 +37,11 @@ public class RustStatic {
 			this.rustInitializer = transpiler.describe(java.getInitializer().get());
 	}
 
+	public void release() {
+		java = null;
+		resolved = null;
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
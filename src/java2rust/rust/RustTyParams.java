@@ -4,6 +4,7 @@ import com.github.javaparser.resolution.declarations.ResolvedTypeParameterDeclar
 import com.github.javaparser.resolution.declarations.ResolvedTypeParametrizable;
 import com.github.javaparser.utils.Pair;
 import java2rust.JavaTranspiler;
+import java2rust.Resolution;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -31,7 +32,7 @@ public class RustTyParams {
 					bounds.add(transpiler.describe(bound.getType()));
 				params.add(new Pair<>(param.getName(), bounds.toString()));
 			} catch (Throwable e) {
-				System.err.println(e);
+				transpiler.diagnostics.warning("In type parameter bounds", Resolution.describe(e));
 				params.add(new Pair<>(param.getName(), "/* %s */".formatted(e.getMessage())));
 			}
 		}
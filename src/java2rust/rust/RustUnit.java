@@ -2,44 +2,112 @@ package java2rust.rust;
 
 import com.github.javaparser.JavaParser;
 import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
 import com.github.javaparser.Problem;
 import com.github.javaparser.StaticJavaParser;
 import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.expr.FieldAccessExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.resolution.declarations.ResolvedValueDeclaration;
+import com.github.javaparser.resolution.types.ResolvedType;
 import java2rust.DeclVisitor;
 import java2rust.JavaTranspiler;
+import java2rust.Resolution;
+import javaparser.ParseCache;
+import org.jspecify.annotations.Nullable;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.StringJoiner;
+import java.util.function.Supplier;
 
 public final class RustUnit {
 	public final RustJar jar;
 	public final Path path;
 	public final RustPackage pkg;
-	public final ParseResult<CompilationUnit> java;
+	/// The parsed source, until released once the package of this unit is generated.
+	public @Nullable ParseResult<CompilationUnit> java;
+	/// A hash identifying the source of this unit, used to detect changes between runs.
+	public final String fingerprint;
 
 	public RustUnit(RustJar jar, RustPackage pkg, Path path) throws IOException {
-		JavaParser parser = new JavaParser(StaticJavaParser.getParserConfiguration());
-		this(jar, path, pkg, parser.parse(path));
+		this(jar, pkg, path, StaticJavaParser.getParserConfiguration());
 	}
 
-	public RustUnit(RustJar jar, Path path, RustPackage pkg, ParseResult<CompilationUnit> java) {
+	/// Parses a unit using an explicit configuration, as the static one is thread-local.
+	public RustUnit(RustJar jar, RustPackage pkg, Path path, ParserConfiguration config) throws IOException {
+		byte[] content = Files.readAllBytes(path);
+		JavaParser parser = new JavaParser(config);
+		ParseResult<CompilationUnit> java = parser.parse(new ByteArrayInputStream(content));
+		java.getResult().ifPresent(unit -> unit.setStorage(path));
+		this(jar, path, pkg, java, ParseCache.hash(content));
+	}
+
+	public RustUnit(
+		RustJar jar,
+		Path path,
+		RustPackage pkg,
+		ParseResult<CompilationUnit> java,
+		String fingerprint
+	) {
 		this.jar = jar;
 		this.path = path;
 		this.pkg = pkg;
 		this.java = java;
+		this.fingerprint = fingerprint;
 	}
 
 	public void preanalyze(JavaTranspiler transpiler) {
-		if (java.getResult().isEmpty())
+		if (java == null || java.getResult().isEmpty())
 			return;
 		java.getResult().get().accept(new DeclVisitor(transpiler, pkg), null);
 	}
 
+	/// Collects into the references of its package the ids of the types this unit refers to, by name or through
+	/// their fields. Nodes remember their resolutions, so those made by analysis aren't made again.
+	public void reference(JavaTranspiler transpiler) {
+		if (java == null || java.getResult().isEmpty())
+			return;
+		java.getResult().get().walk(node -> {
+			switch (node) {
+				case ClassOrInterfaceType type -> reference(transpiler, () -> {
+					ResolvedType resolved = transpiler.resolve(type).orNull();
+					return resolved != null && resolved.isReferenceType()
+						? resolved.asReferenceType().getTypeDeclaration().map(decl -> decl.getId()).orElse(null)
+						: null;
+				});
+				case NameExpr name -> reference(transpiler, () -> declaringType(transpiler.resolve(name).orNull()));
+				case FieldAccessExpr access ->
+					reference(transpiler, () -> declaringType(transpiler.resolve(access).orNull()));
+				default -> {}
+			}
+		});
+	}
+
+	private void reference(JavaTranspiler transpiler, Supplier<@Nullable String> id) {
+		if (Resolution.of(id).orNull() instanceof String type)
+			pkg.references.add(transpiler.interner.intern(type));
+	}
+
+	private static @Nullable String declaringType(@Nullable ResolvedValueDeclaration value) {
+		return value != null && value.isField() ? value.asField().declaringType().getId() : null;
+	}
+
+	/// Drops the parsed source of this unit and the declarations of its package, keeping only what analysis
+	/// rendered. The unit must be parsed again to be analyzed again.
+	public void release() {
+		java = null;
+		pkg.release();
+	}
+
 	@Override
 	public String toString() {
 		StringJoiner problems = new StringJoiner("\n");
-		for (Problem problem : java.getProblems())
+		for (Problem problem : java == null ? List.<Problem>of() : java.getProblems())
 			problems.add("// FIXME: %s".formatted(problem.getVerboseMessage()));
 		String problemsString = problems.toString();
 
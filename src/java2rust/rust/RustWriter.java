@@ -0,0 +1,229 @@
+package java2rust.rust;
+
+import java2rust.Metrics;
+import org.jspecify.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/// A buffered, indentation-aware output into which items emit their Rust source.
+///
+/// While indented, every line break written is followed by the indentation, so nested items are emitted in a
+/// single pass rather than rendered to a string and re-indented.
+public final class RustWriter implements Closeable {
+	private static final String INDENTATION = "\t";
+
+	private final Writer out;
+	private final @Nullable FileSink sink;
+	private final @Nullable Metrics metrics;
+	private int level;
+
+	/// Something which can be emitted, such as an item or a function.
+	@FunctionalInterface
+	public interface Emitter {
+		void emit(RustWriter out) throws IOException;
+	}
+
+	public RustWriter(Writer out) {
+		this.out = out;
+		this.sink = null;
+		this.metrics = null;
+	}
+
+	private RustWriter(FileSink sink, Metrics metrics) {
+		this.out = new BufferedWriter(new OutputStreamWriter(sink, StandardCharsets.UTF_8));
+		this.sink = sink;
+		this.metrics = metrics;
+	}
+
+	/// Writes the source emitted by `emitter` to `file`, unless the file already holds exactly that, in which case
+	/// it is left untouched and keeps its modification time. The file is left as it was if emitting fails.
+	///
+	/// Returns the SHA-256 hash of the content, as hexadecimal.
+	public static String write(Path file, Metrics metrics, Emitter emitter) throws IOException {
+		FileSink sink = new FileSink(file);
+		RustWriter out = new RustWriter(sink, metrics);
+		try {
+			emitter.emit(out);
+		} catch (IOException | RuntimeException e) {
+			sink.discard();
+			throw e;
+		}
+		out.close();
+		return HexFormat.of().formatHex(sink.digest.digest());
+	}
+
+	/// Returns the source emitted by `emitter`.
+	public static String render(Emitter emitter) {
+		StringWriter sw = new StringWriter();
+		try {
+			emitter.emit(new RustWriter(sw));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return sw.toString();
+	}
+
+	public RustWriter indent() {
+		level++;
+		return this;
+	}
+
+	public RustWriter unindent() {
+		level--;
+		return this;
+	}
+
+	public RustWriter print(String s) throws IOException {
+		if (level == 0) {
+			out.write(s);
+			return this;
+		}
+		int start = 0;
+		for (int end = s.indexOf('\n'); end >= 0; end = s.indexOf('\n', start)) {
+			out.write(s, start, end + 1 - start);
+			makeIndent();
+			start = end + 1;
+		}
+		out.write(s, start, s.length() - start);
+		return this;
+	}
+
+	public RustWriter print(char c) throws IOException {
+		out.write(c);
+		if (c == '\n')
+			makeIndent();
+		return this;
+	}
+
+	public RustWriter print(@Nullable Object o) throws IOException {
+		return print(String.valueOf(o));
+	}
+
+	public RustWriter emit(Emitter emitter) throws IOException {
+		emitter.emit(this);
+		return this;
+	}
+
+	private void makeIndent() throws IOException {
+		for (int i = 0; i < level; i++)
+			out.write(INDENTATION);
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+		if (sink == null || metrics == null)
+			return;
+		if (sink.changed) {
+			metrics.increment(Metrics.Counter.FILES_WRITTEN);
+			metrics.add(Metrics.Counter.BYTES_WRITTEN, sink.size);
+		} else {
+			metrics.increment(Metrics.Counter.FILES_UNCHANGED);
+		}
+	}
+
+	/// The bytes of a file being written, hashed and compared with its previous content as they come.
+	///
+	/// Nothing is written while they match, and a temporary file is only started from the matching prefix at the
+	/// first difference, then moved over the file when closed.
+	private static final class FileSink extends OutputStream {
+		private final Path file;
+		final MessageDigest digest;
+		private @Nullable InputStream previous;
+		private @Nullable Path tmp;
+		private @Nullable OutputStream out;
+		private byte[] scratch = new byte[0];
+		private long matched;
+		long size;
+		boolean changed;
+
+		FileSink(Path file) throws IOException {
+			this.file = file;
+			try {
+				digest = MessageDigest.getInstance("SHA-256");
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException("SHA-256 is required by the Java platform", e);
+			}
+			if (Files.isRegularFile(file))
+				previous = new BufferedInputStream(Files.newInputStream(file));
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] {(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			size += len;
+			digest.update(b, off, len);
+			if (out == null) {
+				if (previous != null) {
+					if (scratch.length < len)
+						scratch = new byte[len];
+					int read = previous.readNBytes(scratch, 0, len);
+					if (read == len && Arrays.equals(scratch, 0, len, b, off, off + len)) {
+						matched += len;
+						return;
+					}
+				}
+				diverge();
+			}
+			out.write(b, off, len);
+		}
+
+		/// Starts the temporary file, copying the prefix which matched the previous content.
+		private void diverge() throws IOException {
+			if (previous != null) {
+				previous.close();
+				previous = null;
+			}
+			tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+			out = new BufferedOutputStream(Files.newOutputStream(tmp));
+			if (matched > 0) {
+				try (InputStream in = Files.newInputStream(file)) {
+					byte[] buffer = new byte[8192];
+					for (long remaining = matched; remaining > 0; ) {
+						int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+						if (read < 0)
+							throw new EOFException("%s changed while being regenerated".formatted(file));
+						out.write(buffer, 0, read);
+						remaining -= read;
+					}
+				}
+			}
+			changed = true;
+		}
+
+		/// Abandons the file, leaving its previous content in place.
+		void discard() throws IOException {
+			if (previous != null)
+				previous.close();
+			if (out != null) {
+				out.close();
+				Files.deleteIfExists(tmp);
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (out == null) {
+				if (previous != null && previous.read() < 0) {
+					previous.close();
+					return;
+				}
+				diverge();
+			}
+			out.close();
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+}
@@ -0,0 +1,219 @@
+package javaparser;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * A read-only zip archive mapped in memory.
+ * <p>
+ * Entries are located from the central directory of the mapping, stored entries are read in place and deflated
+ * ones are inflated straight from the mapping, so no stream or intermediate copy of the archive is involved.
+ * Only archives under 2 GiB are supported, whose entries may still carry their sizes and offsets in ZIP64 extra
+ * fields, others are rejected with a {@link ZipException}.
+ *
+ * @author Christophe Bronner
+ */
+public final class MappedZip {
+	private static final int LOCAL_HEADER = 0x04034b50;
+	private static final int CENTRAL_HEADER = 0x02014b50;
+	private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+	private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+	private static final int ZIP64_EXTRA = 0x0001;
+	/// The value of a size or an offset which is held by the ZIP64 extra field of an entry instead.
+	private static final long ZIP64_MARKER = 0xFFFFFFFFL;
+	private static final int STORED = 0;
+	private static final int DEFLATED = 8;
+
+	public final Path path;
+	private final MappedByteBuffer buffer;
+	private final Map<String, Entry> entries;
+
+	/// An entry of the central directory.
+	public record Entry(String name, int method, int compressedSize, int size, int localHeaderOffset) {
+		public boolean isDirectory() {
+			return name.endsWith("/");
+		}
+	}
+
+	public MappedZip(Path path) throws IOException {
+		this.path = path;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE)
+				throw new ZipException("Archive too large to be mapped: " + path);
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		try {
+			entries = Collections.unmodifiableMap(readCentralDirectory());
+		} catch (IndexOutOfBoundsException e) {
+			throw new ZipException("Truncated central directory in " + path);
+		}
+	}
+
+	/// Returns the entries of the archive by name, in the order of its central directory.
+	public Map<String, Entry> entries() {
+		return entries;
+	}
+
+	public @Nullable Entry entry(String name) {
+		return entries.get(name);
+	}
+
+	/// Returns the uncompressed content of an entry, a view of the mapping itself when it is stored.
+	public ByteBuffer read(Entry entry) throws IOException {
+		int offset = entry.localHeaderOffset();
+		if (buffer.getInt(offset) != LOCAL_HEADER)
+			throw new ZipException("Invalid local header for " + entry.name());
+		int data = offset + 30 + Short.toUnsignedInt(buffer.getShort(offset + 26))
+			+ Short.toUnsignedInt(buffer.getShort(offset + 28));
+		ByteBuffer compressed = buffer.slice(data, entry.compressedSize());
+		return switch (entry.method()) {
+			case STORED -> compressed;
+			case DEFLATED -> inflate(entry, compressed);
+			default -> throw new ZipException("Unsupported compression method %s for %s".formatted(
+				entry.method(),
+				entry.name()));
+		};
+	}
+
+	/// Returns a stream over the uncompressed content of an entry.
+	public InputStream open(Entry entry) throws IOException {
+		return new BufferInputStream(read(entry));
+	}
+
+	private static ByteBuffer inflate(Entry entry, ByteBuffer compressed) throws ZipException {
+		Inflater inflater = new Inflater(true);
+		try {
+			inflater.setInput(compressed);
+			ByteBuffer content = ByteBuffer.allocate(entry.size());
+			while (content.hasRemaining() && !inflater.finished()) {
+				if (inflater.inflate(content) == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+					throw new ZipException("Truncated entry " + entry.name());
+			}
+			return content.flip();
+		} catch (DataFormatException e) {
+			throw new ZipException("Invalid entry %s: %s".formatted(entry.name(), e.getMessage()));
+		} finally {
+			inflater.end();
+		}
+	}
+
+	private Map<String, Entry> readCentralDirectory() throws ZipException {
+		int end = findEndOfCentralDirectory();
+		int count = Short.toUnsignedInt(buffer.getShort(end + 10));
+		long offset = Integer.toUnsignedLong(buffer.getInt(end + 16));
+		if (count == 0xFFFF || offset == ZIP64_MARKER)
+			throw new ZipException("ZIP64 archives are not supported: " + path);
+
+		Map<String, Entry> entries = new LinkedHashMap<>(count * 2);
+		int position = (int) offset;
+		for (int i = 0; i < count; i++) {
+			if (buffer.getInt(position) != CENTRAL_HEADER)
+				throw new ZipException("Invalid central directory in " + path);
+			int nameLength = Short.toUnsignedInt(buffer.getShort(position + 28));
+			int extraLength = Short.toUnsignedInt(buffer.getShort(position + 30));
+			int commentLength = Short.toUnsignedInt(buffer.getShort(position + 32));
+			String name = StandardCharsets.UTF_8.decode(buffer.slice(position + 46, nameLength)).toString();
+			long[] values = {
+				Integer.toUnsignedLong(buffer.getInt(position + 24)),
+				Integer.toUnsignedLong(buffer.getInt(position + 20)),
+				Integer.toUnsignedLong(buffer.getInt(position + 42)),
+			};
+			readZip64Extra(name, position + 46 + nameLength, extraLength, values);
+			for (long value : values)
+				if (value < 0 || value > buffer.limit())
+					throw new ZipException("Invalid size or offset for %s in %s".formatted(name, path));
+			entries.put(name, new Entry(
+				name,
+				Short.toUnsignedInt(buffer.getShort(position + 10)),
+				(int) values[1],
+				(int) values[0],
+				(int) values[2]));
+			position += 46 + nameLength + extraLength + commentLength;
+		}
+		return entries;
+	}
+
+	/// Replaces the uncompressed size, the compressed size and the local header offset of an entry, in this order,
+	/// which hold [#ZIP64_MARKER] with those of the ZIP64 extra field among the `length` bytes at `position`.
+	private void readZip64Extra(String name, int position, int length, long[] values) throws ZipException {
+		boolean marked = false;
+		for (long value : values)
+			marked |= value == ZIP64_MARKER;
+		if (!marked)
+			return;
+		for (int end = position + length; position + 4 <= end; ) {
+			int id = Short.toUnsignedInt(buffer.getShort(position));
+			int size = Short.toUnsignedInt(buffer.getShort(position + 2));
+			position += 4;
+			if (id == ZIP64_EXTRA) {
+				int field = position;
+				for (int i = 0; i < values.length; i++) {
+					if (values[i] != ZIP64_MARKER)
+						continue;
+					if (field + Long.BYTES > position + size)
+						throw new ZipException("Truncated ZIP64 extra field for %s in %s".formatted(name, path));
+					values[i] = buffer.getLong(field);
+					field += Long.BYTES;
+				}
+				return;
+			}
+			position += size;
+		}
+		throw new ZipException("Missing ZIP64 extra field for %s in %s".formatted(name, path));
+	}
+
+	/// Scans backwards for the end of central directory record, which may be followed by a comment.
+	private int findEndOfCentralDirectory() throws ZipException {
+		int last = buffer.limit() - END_OF_CENTRAL_DIRECTORY_SIZE;
+		int first = Math.max(0, last - 0xFFFF);
+		for (int position = last; position >= first; position--)
+			if (buffer.getInt(position) == END_OF_CENTRAL_DIRECTORY)
+				return position;
+		throw new ZipException("Not a zip archive: " + path);
+	}
+
+	private static final class BufferInputStream extends InputStream {
+		private final ByteBuffer buffer;
+
+		BufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? Byte.toUnsignedInt(buffer.get()) : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (len == 0)
+				return 0;
+			if (!buffer.hasRemaining())
+				return -1;
+			len = Math.min(len, buffer.remaining());
+			buffer.get(b, off, len);
+			return len;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package javaparser;
+
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * An on-disk cache of the declaration skeleton of parsed compilation units.
+ * <p>
+ * Entries are keyed by the SHA-256 of the source and the language level it was parsed with, and list the
+ * qualified names of every type the unit declares, one per line. This is enough to know where a type lives
+ * without parsing the unit again.
+ *
+ * @author Christophe Bronner
+ */
+public final class ParseCache {
+	public final Path directory;
+	public final ParserConfiguration.LanguageLevel level;
+
+	public ParseCache(Path directory, ParserConfiguration.LanguageLevel level) throws IOException {
+		this.directory = Files.createDirectories(directory);
+		this.level = level;
+	}
+
+	/// Returns the hexadecimal SHA-256 of `content`.
+	public static String hash(byte[] content) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is required by the Java platform", e);
+		}
+	}
+
+	/// Returns the qualified names of the types declared by `unit`, including nested ones.
+	public static List<String> types(CompilationUnit unit) {
+		List<String> types = new ArrayList<>();
+		for (TypeDeclaration<?> td : unit.findAll(TypeDeclaration.class))
+			types.add(td.getFullyQualifiedName().orElse(td.getNameAsString()));
+		return types;
+	}
+
+	/// Returns the cached type names of the unit with the given hash, or `null` if it was never cached.
+	public @Nullable List<String> types(String hash) {
+		try {
+			return Files.readAllLines(entry(hash));
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException e) {
+			System.err.printf("Couldn't read parse cache entry %s: %s\n", hash, e.getLocalizedMessage());
+			return null;
+		}
+	}
+
+	/// Records the type names of `unit`, whose source has the given hash.
+	public void put(String hash, CompilationUnit unit) {
+		Path entry = entry(hash);
+		try {
+			Files.createDirectories(entry.getParent());
+			// Entries are written aside then moved, so concurrent runs never observe a partial entry.
+			Path tmp = Files.createTempFile(entry.getParent(), hash, ".tmp");
+			Files.write(tmp, types(unit));
+			Files.move(tmp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			System.err.printf("Couldn't write parse cache entry %s: %s\n", hash, e.getLocalizedMessage());
+		}
+	}
+
+	private Path entry(String hash) {
+		return directory.resolve(hash.substring(0, 2)).resolve("%s.%s".formatted(hash, level));
+	}
+}
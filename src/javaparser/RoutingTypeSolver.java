@@ -0,0 +1,157 @@
+package javaparser;
+
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A type solver delegating each name to the solvers owning its package.
+ * <p>
+ * Solvers are registered with the package prefixes they own, a qualified name being routed to the solvers owning
+ * its longest matching prefixes. The default package is owned through the empty prefix, which only names without
+ * a package match. Solvers registered without prefixes are tried for every name, after the routed ones. A bounded
+ * number of solved names, and of names no solver knows, are remembered until another solver is added. Like a
+ * {@link com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver} ignoring all exceptions,
+ * a solver failing to solve a name is skipped.
+ *
+ * @author Christophe Bronner
+ */
+public class RoutingTypeSolver implements TypeSolver {
+	/// The prefix owning the types of the default package.
+	public static final String DEFAULT_PACKAGE = "";
+	/// The number of solved names, and of unknown names, remembered at most.
+	public static final int CAPACITY = 1 << 16;
+	private final Map<String, List<TypeSolver>> routes = new ConcurrentHashMap<>();
+	private final List<TypeSolver> unrouted = new CopyOnWriteArrayList<>();
+	private final List<TypeSolver> added = new CopyOnWriteArrayList<>();
+	private final Set<String> unknown = Collections.newSetFromMap(bounded(CAPACITY));
+	private final Map<String, SymbolReference<ResolvedReferenceTypeDeclaration>> solved = bounded(CAPACITY);
+	private TypeSolver parent;
+
+	/// Returns a synchronized map evicting its least recently used entries beyond `capacity`.
+	private static <V> Map<String, V> bounded(int capacity) {
+		return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+				return size() > capacity;
+			}
+		});
+	}
+
+	/// Adds a solver which may solve any name.
+	public void add(TypeSolver solver) {
+		solver.setParent(this);
+		unrouted.add(solver);
+		added.add(solver);
+		unknown.clear();
+	}
+
+	/// Adds a solver owning the given package prefixes, such as `java` or `com.example.app`.
+	public void add(TypeSolver solver, Collection<String> prefixes) {
+		solver.setParent(this);
+		for (String prefix : prefixes)
+			routes.computeIfAbsent(prefix, _ -> new CopyOnWriteArrayList<>()).add(solver);
+		added.add(solver);
+		unknown.clear();
+	}
+
+	/// Replaces a solver by another owning the given package prefixes, keeping its position among added solvers.
+	public void replace(TypeSolver solver, TypeSolver replacement, Collection<String> prefixes) {
+		replacement.setParent(this);
+		added.replaceAll(s -> s == solver ? replacement : s);
+		unrouted.remove(solver);
+		for (List<TypeSolver> solvers : routes.values())
+			solvers.remove(solver);
+		routes.values().removeIf(List::isEmpty);
+		if (prefixes.isEmpty())
+			unrouted.add(replacement);
+		for (String prefix : prefixes)
+			routes.computeIfAbsent(prefix, _ -> new CopyOnWriteArrayList<>()).add(replacement);
+		solved.clear();
+		unknown.clear();
+	}
+
+	/// Returns the number of solvers added so far.
+	public int size() {
+		return added.size();
+	}
+
+	/// Removes every solver added after the first `size` ones, forgetting all names solved so far.
+	public void truncate(int size) {
+		List<TypeSolver> removed = List.copyOf(added.subList(size, added.size()));
+		added.removeAll(removed);
+		unrouted.removeAll(removed);
+		for (List<TypeSolver> solvers : routes.values())
+			solvers.removeAll(removed);
+		routes.values().removeIf(List::isEmpty);
+		solved.clear();
+		unknown.clear();
+	}
+
+	@Override
+	public TypeSolver getParent() {
+		return parent;
+	}
+
+	@Override
+	public void setParent(TypeSolver parent) {
+		Objects.requireNonNull(parent);
+		if (this.parent != null)
+			throw new IllegalStateException("This TypeSolver already has a parent.");
+		if (parent == this)
+			throw new IllegalStateException("The parent of this TypeSolver cannot be itself.");
+		this.parent = parent;
+	}
+
+	@Override
+	public SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(String name) {
+		if (solved.get(name) instanceof SymbolReference<ResolvedReferenceTypeDeclaration> reference)
+			return reference;
+		if (unknown.contains(name))
+			return SymbolReference.unsolved();
+
+		for (int dot = name.lastIndexOf('.'); dot > 0; dot = name.lastIndexOf('.', dot - 1)) {
+			List<TypeSolver> solvers = routes.get(name.substring(0, dot));
+			if (solvers != null && tryToSolveType(name, solvers) instanceof SymbolReference<ResolvedReferenceTypeDeclaration> reference)
+				return reference;
+		}
+		// A type of the default package, or a type nested in one.
+		List<TypeSolver> solvers = routes.get(DEFAULT_PACKAGE);
+		if (solvers != null && tryToSolveType(name, solvers) instanceof SymbolReference<ResolvedReferenceTypeDeclaration> reference)
+			return reference;
+		if (tryToSolveType(name, unrouted) instanceof SymbolReference<ResolvedReferenceTypeDeclaration> reference)
+			return reference;
+
+		unknown.add(name);
+		return SymbolReference.unsolved();
+	}
+
+	private SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(String name, List<TypeSolver> solvers) {
+		for (TypeSolver solver : solvers) {
+			try {
+				SymbolReference<ResolvedReferenceTypeDeclaration> reference = solver.tryToSolveType(name);
+				if (reference.isSolved()) {
+					solved.put(name, reference);
+					return reference;
+				}
+			} catch (Exception e) {
+				// Ignored, as the combined solver this replaces would.
+			}
+		}
+		return null;
+	}
+
+	/// Returns the packages of the given qualified type names, the default package being [#DEFAULT_PACKAGE].
+	public static Set<String> packagesOf(Collection<String> types) {
+		Set<String> packages = new HashSet<>();
+		for (String type : types) {
+			int dot = type.lastIndexOf('.');
+			packages.add(dot > 0 ? type.substring(0, dot) : DEFAULT_PACKAGE);
+		}
+		return packages;
+	}
+}
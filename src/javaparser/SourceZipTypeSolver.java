@@ -21,31 +21,63 @@
 
 package javaparser;
 
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.body.TypeDeclaration;
 import com.github.javaparser.resolution.TypeSolver;
-import com.github.javaparser.resolution.cache.Cache;
 import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
 import com.github.javaparser.resolution.model.SymbolReference;
-import com.github.javaparser.symbolsolver.cache.GuavaCache;
 import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
 import com.github.javaparser.utils.SourceZip;
-import com.google.common.cache.CacheBuilder;
+import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.jspecify.annotations.Nullable;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
 
 /**
- *
+ * A type solver over the Java files of a sources jar.
+ * <p>
+ * The jar is mapped in memory and indexed on first use from its directory listing alone, each entry being
+ * expected to declare the type matching its path. Entries are parsed on demand, straight from the mapping and at
+ * most once, when one of their types is solved or when {@link #unit(Path)} is called, which lets a
+ * {@link java2rust.rust.RustJar} share the parsed units. Released entries are parsed again when next needed.
+ * <p>
+ * With a {@link ParseCache}, the index is instead built from the declaration skeleton of every entry, so that
+ * secondary top-level types are known too. Given an index file, the index is persisted there once built, and
+ * later solvers over the same jar load it instead, unless the size or the modification time of the jar recorded
+ * along with it changed since.
  *
  * @author Christophe Bronner
  */
 public class SourceZipTypeSolver implements TypeSolver {
 	private static final int CACHE_SIZE_UNSET = -1;
+	/// The first line of a persisted index, followed by the size and the modification time of the jar.
+	private static final String INDEX_HEADER = "java2rust-index";
 	public final SourceZip sources;
+	/// The Java files of the jar, in the order of its directory.
 	public final List<Path> paths = new ArrayList<>();
-	public final HashMap<String, TypeDeclaration<?>> types = new HashMap<>();
+	/// The parsed type declarations, by qualified name.
+	public final Map<String, TypeDeclaration<?>> types = new ConcurrentHashMap<>();
+	/// The zip entry declaring each known type, by qualified name.
+	public final Map<String, Path> index = new ConcurrentHashMap<>();
+	private final Map<Path, ParseResult<CompilationUnit>> units = new ConcurrentHashMap<>();
+	private final @Nullable ParseCache cache;
+	private final @Nullable Path indexFile;
+	private @Nullable MappedZip mapped;
+	private volatile boolean indexed;
 	private String commonPrefix = "";
 	private TypeSolver parent;
 
@@ -54,7 +86,13 @@ public class SourceZipTypeSolver implements TypeSolver {
 	}
 
 	public SourceZipTypeSolver(SourceZip sources, int cacheSizeLimit) throws IOException {
+		this(sources, null, null);
+	}
+
+	public SourceZipTypeSolver(SourceZip sources, @Nullable ParseCache cache, @Nullable Path indexFile) {
 		this.sources = sources;
+		this.cache = cache;
+		this.indexFile = indexFile;
 	}
 
 	@Override
@@ -86,6 +124,10 @@ public class SourceZipTypeSolver implements TypeSolver {
 			return SymbolReference.unsolved();
 
 		TypeDeclaration<?> td = types.get(name);
+		if (td == null && entry(name) instanceof Path entry) {
+			unit(entry);
+			td = types.get(name);
+		}
 		if (td == null)
 			return SymbolReference.unsolved();
 
@@ -100,22 +142,200 @@ public class SourceZipTypeSolver implements TypeSolver {
 		return tryToSolveType(qualifiedModuleName + "." + simpleTypeName);
 	}
 
+	/// Returns the entry declaring a type, looking for its outermost type when it is nested.
+	private @Nullable Path entry(String name) {
+		for (String outer = name; ; outer = outer.substring(0, outer.lastIndexOf('.'))) {
+			if (index.get(outer) instanceof Path entry)
+				return entry;
+			if (outer.indexOf('.') < 0)
+				return null;
+		}
+	}
+
+	/// Returns the packages of the Java files of the jar, the default package being
+	/// [RoutingTypeSolver#DEFAULT_PACKAGE].
+	public Set<String> packages() {
+		parseIfNecessary();
+		Set<String> packages = new HashSet<>();
+		for (Path path : paths)
+			packages.add(path.getParent() == null
+				? RoutingTypeSolver.DEFAULT_PACKAGE
+				: path.getParent().toString().replace(File.separatorChar, '.'));
+		return packages;
+	}
+
+	/// Returns the parsed unit of an entry of the jar, parsing it on first use.
+	public ParseResult<CompilationUnit> unit(Path entry) {
+		return units.computeIfAbsent(entry, this::parse);
+	}
+
+	/// Drops the parsed unit of an entry of the jar and the type declarations it holds, so that they can be
+	/// collected. The entry is parsed again when one of its types is next solved.
+	public void release(Path entry) {
+		ParseResult<CompilationUnit> unit = units.remove(entry);
+		if (unit == null || unit.getResult().isEmpty())
+			return;
+		for (TypeDeclaration<?> td : unit.getResult().get().findAll(TypeDeclaration.class))
+			types.remove(td.getFullyQualifiedName().orElse(td.getNameAsString()), td);
+	}
+
+	/// Drops every parsed unit of the jar, along with the type declarations they hold.
+	public void release() {
+		units.clear();
+		types.clear();
+	}
+
 	public void parseIfNecessary() {
-		if (!types.isEmpty())
+		if (!indexed)
+			index();
+	}
+
+	private synchronized void index() {
+		if (indexed)
 			return;
 		try {
-			sources.parse((path, result) -> {
-				paths.add(path);
-				if (result.getResult().isEmpty())
-					return;
-				for (TypeDeclaration<?> td : result.getResult().get().getTypes())
-					types.put(td.getFullyQualifiedName().orElse(td.getNameAsString()), td);
-			});
-			commonPrefix = StringUtils.getCommonPrefix(types.keySet().toArray(new String[0]));
+			List<String> entries = list();
+			for (String entry : entries)
+				paths.add(Path.of(entry));
+
+			if (indexFile != null && Files.exists(indexFile) && load(indexFile)) {
+				indexed = true;
+				return;
+			}
+			if (cache != null)
+				index(entries, cache);
+			else
+				for (String entry : entries)
+					index.put(FilenameUtils.removeExtension(entry).replace('/', '.'), Path.of(entry));
+			commonPrefix = StringUtils.getCommonPrefix(index.keySet().toArray(new String[0]));
+			indexed = true;
 		} catch (IOException e) {
 			throw new RuntimeException(
 				"Issue while parsing while type solving: " + sources.getZipPath().toAbsolutePath(),
 				e);
 		}
+		if (indexFile != null)
+			save(indexFile);
+	}
+
+	/// Indexes every entry from its declaration skeleton, parsing those missing from the cache.
+	private void index(List<String> entries, ParseCache cache) throws IOException {
+		for (String entry : entries) {
+			Path path = Path.of(entry);
+			byte[] content;
+			try (InputStream in = open(entry)) {
+				content = in.readAllBytes();
+			}
+			String hash = ParseCache.hash(content);
+			List<String> cached = cache.types(hash);
+			if (cached != null) {
+				for (String type : cached)
+					index.put(type, path);
+				continue;
+			}
+			ParseResult<CompilationUnit> result = parse(path, new ByteArrayInputStream(content));
+			units.put(path, result);
+			if (result.getResult().isPresent())
+				cache.put(hash, result.getResult().get());
+		}
+	}
+
+	/// Lists the Java files of the jar, mapping it in memory unless it isn't a plain zip archive.
+	private List<String> list() throws IOException {
+		try {
+			mapped = new MappedZip(sources.getZipPath());
+			return mapped
+				.entries()
+				.values()
+				.stream()
+				.filter(entry -> !entry.isDirectory() && entry.name().endsWith(".java"))
+				.map(MappedZip.Entry::name)
+				.toList();
+		} catch (ZipException e) {
+			System.err.printf("Couldn't map %s, falling back to streams: %s\n", sources.getZipPath(), e.getMessage());
+		}
+		try (ZipFile zip = new ZipFile(sources.getZipPath().toFile())) {
+			return zip
+				.stream()
+				.filter(entry -> !entry.isDirectory() && entry.getName().endsWith(".java"))
+				.map(ZipEntry::getName)
+				.toList();
+		}
+	}
+
+	/// Opens an entry of the jar, reading it from the mapping when there is one.
+	private InputStream open(String entry) throws IOException {
+		if (mapped != null && mapped.entry(entry) instanceof MappedZip.Entry mappedEntry)
+			return mapped.open(mappedEntry);
+		try (ZipFile zip = new ZipFile(sources.getZipPath().toFile());
+			 InputStream in = zip.getInputStream(zip.getEntry(entry))) {
+			return new ByteArrayInputStream(in.readAllBytes());
+		}
+	}
+
+	/// Loads a persisted index, one `name\tentry` pair per line after the header, returning whether it could be read
+	/// and was built from the jar as it is now.
+	private boolean load(Path file) {
+		try {
+			List<String> lines = Files.readAllLines(file);
+			if (lines.isEmpty() || !lines.getFirst().equals(header()))
+				return false;
+			for (String line : lines.subList(1, lines.size())) {
+				int tab = line.indexOf('\t');
+				if (tab >= 0)
+					index.put(line.substring(0, tab), Path.of(line.substring(tab + 1)));
+			}
+		} catch (IOException e) {
+			System.err.printf("Couldn't read index %s: %s\n", file, e.getLocalizedMessage());
+			index.clear();
+			return false;
+		}
+		commonPrefix = StringUtils.getCommonPrefix(index.keySet().toArray(new String[0]));
+		return true;
+	}
+
+	/// Persists the index, with entries named by `/`-separated paths as in the jar whatever the platform.
+	private void save(Path file) {
+		List<String> lines = new ArrayList<>(index.size() + 1);
+		try {
+			lines.add(header());
+			new TreeMap<>(index).forEach((name, entry) ->
+				lines.add(name + "\t" + FilenameUtils.separatorsToUnix(entry.toString())));
+			Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+			Files.write(tmp, lines);
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			System.err.printf("Couldn't write index %s: %s\n", file, e.getLocalizedMessage());
+		}
+	}
+
+	/// Returns the header identifying the jar as it is now, by its size and modification time.
+	private String header() throws IOException {
+		Path jar = sources.getZipPath();
+		return INDEX_HEADER + "\t" + Files.size(jar) + "\t" + Files.getLastModifiedTime(jar).toMillis();
+	}
+
+	private ParseResult<CompilationUnit> parse(Path entry) {
+		try (InputStream in = open(FilenameUtils.separatorsToUnix(entry.toString()))) {
+			return parse(entry, in);
+		} catch (IOException e) {
+			throw new RuntimeException(
+				"Issue while parsing while type solving: " + sources.getZipPath().resolve(entry),
+				e);
+		}
+	}
+
+	/// Parses the content of an entry, registering the types it declares.
+	private ParseResult<CompilationUnit> parse(Path entry, InputStream content) {
+		JavaParser parser = new JavaParser(sources.getParserConfiguration());
+		ParseResult<CompilationUnit> result = parser.parse(content);
+		if (result.getResult().isEmpty())
+			return result;
+		for (TypeDeclaration<?> td : result.getResult().get().findAll(TypeDeclaration.class)) {
+			String name = td.getFullyQualifiedName().orElse(td.getNameAsString());
+			types.put(name, td);
+			index.put(name, entry);
+		}
+		return result;
 	}
 }
@@ -0,0 +1,198 @@
+package test;
+
+import com.github.javaparser.ast.Node;
+import java2rust.CallGraph;
+import java2rust.JavaTranspiler;
+import java2rust.rust.IRustFunction;
+import java2rust.rust.RustCalls;
+import java2rust.rust.RustItem;
+import java2rust.rust.RustParams;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CallGraphTest {
+	/// A function throwing the types given, linked to its callees by hand.
+	private static final class Function implements IRustFunction {
+		final String name;
+		final RustCalls calls = new RustCalls(this);
+		final Set<String> thrown;
+
+		Function(String name, String... thrown) {
+			this.name = name;
+			this.thrown = new HashSet<>(List.of(thrown));
+		}
+
+		void call(Function... callees) {
+			for (Function callee : callees) {
+				calls.callees.add(callee);
+				callee.calls.addCaller(this);
+			}
+		}
+
+		@Override
+		public RustItem item() {
+			return null;
+		}
+
+		@Override
+		public RustParams params() {
+			return RustParams.EMPTY;
+		}
+
+		@Override
+		public RustCalls calls() {
+			return calls;
+		}
+
+		@Override
+		public Set<String> thrown() {
+			return thrown;
+		}
+
+		@Override
+		public void analyzeCalls(JavaTranspiler transpiler) {}
+
+		@Override
+		public void analyzeSignature(JavaTranspiler transpiler) {}
+
+		@Override
+		public void render(JavaTranspiler transpiler) {}
+
+		@Override
+		public Node body() {
+			return null;
+		}
+
+		@Override
+		public void release() {}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	@Test
+	public void propagatesAlongAChain() {
+		Function a = new Function("a");
+		Function b = new Function("b", "B");
+		Function c = new Function("c", "C");
+		a.call(b);
+		b.call(c);
+
+		assertEquals(3, CallGraph.propagateThrown(List.of(a)));
+		assertEquals(Set.of("B", "C"), a.thrown());
+		assertEquals(Set.of("B", "C"), b.thrown());
+		assertEquals(Set.of("C"), c.thrown());
+	}
+
+	@Test
+	public void sharesThrownTypesWithinACycle() {
+		Function a = new Function("a", "A");
+		Function b = new Function("b", "B");
+		Function c = new Function("c", "C");
+		Function d = new Function("d", "D");
+		a.call(b);
+		b.call(c);
+		c.call(a, d);
+
+		assertEquals(2, CallGraph.propagateThrown(List.of(b)));
+		for (Function function : List.of(a, b, c))
+			assertEquals(Set.of("A", "B", "C", "D"), function.thrown());
+		assertEquals(Set.of("D"), d.thrown());
+	}
+
+	@Test
+	public void propagatesBetweenMutuallyRecursiveComponents() {
+		// {a, b} calls {c, d}, which calls e, while f calls into {a, b} without being called.
+		Function a = new Function("a", "A");
+		Function b = new Function("b");
+		Function c = new Function("c", "C");
+		Function d = new Function("d");
+		Function e = new Function("e", "E");
+		Function f = new Function("f", "F");
+		a.call(b);
+		b.call(a, c);
+		c.call(d);
+		d.call(c, e);
+		f.call(b);
+
+		assertEquals(4, CallGraph.propagateThrown(List.of(a, f)));
+		assertEquals(Set.of("A", "C", "E"), a.thrown());
+		assertEquals(Set.of("A", "C", "E"), b.thrown());
+		assertEquals(Set.of("C", "E"), c.thrown());
+		assertEquals(Set.of("C", "E"), d.thrown());
+		assertEquals(Set.of("E"), e.thrown());
+		assertEquals(Set.of("A", "C", "E", "F"), f.thrown());
+	}
+
+	@Test
+	public void handlesSelfCalls() {
+		Function a = new Function("a", "A");
+		Function b = new Function("b", "B");
+		a.call(a, b);
+		b.call(b);
+
+		assertEquals(2, CallGraph.propagateThrown(List.of(a)));
+		assertEquals(Set.of("A", "B"), a.thrown());
+		assertEquals(Set.of("B"), b.thrown());
+	}
+
+	@Test
+	public void propagatesTheSameWhateverTheOrderOfTheRoots() {
+		Map<String, Set<String>> expected = Map.of(
+			"a", Set.of("A", "B", "D", "E"),
+			"b", Set.of("A", "B", "D", "E"),
+			"c", Set.of("D", "E"),
+			"d", Set.of("D", "E"),
+			"e", Set.of("D", "E"),
+			"f", Set.of("A", "B", "D", "E")
+		);
+		for (List<Integer> order : permutations(List.of(0, 1, 2, 3, 4, 5))) {
+			List<Function> functions = graph();
+			List<Function> roots = order.stream().map(functions::get).toList();
+			CallGraph.propagateThrown(roots);
+
+			Map<String, Set<String>> thrown = new HashMap<>();
+			for (Function function : functions)
+				thrown.put(function.name, Set.copyOf(function.thrown()));
+			assertEquals(expected, thrown, "roots " + roots);
+		}
+	}
+
+	/// A graph of chains, cycles and self-calls between six functions.
+	private static List<Function> graph() {
+		Function a = new Function("a", "A");
+		Function b = new Function("b", "B");
+		Function c = new Function("c");
+		Function d = new Function("d", "D");
+		Function e = new Function("e", "E");
+		Function f = new Function("f");
+		a.call(b, c);
+		b.call(a, d);
+		c.call(c, e);
+		d.call(e);
+		e.call(d);
+		f.call(a, f);
+		return List.of(a, b, c, d, e, f);
+	}
+
+	private static <T> List<List<T>> permutations(List<T> values) {
+		if (values.isEmpty())
+			return List.of(List.of());
+		List<List<T>> permutations = new ArrayList<>();
+		for (T first : values) {
+			List<T> rest = new ArrayList<>(values);
+			rest.remove(first);
+			for (List<T> permutation : permutations(rest)) {
+				List<T> combined = new ArrayList<>(List.of(first));
+				combined.addAll(permutation);
+				permutations.add(combined);
+			}
+		}
+		return permutations;
+	}
+}
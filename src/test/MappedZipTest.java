@@ -0,0 +1,195 @@
+package test;
+
+import javaparser.MappedZip;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedZipTest {
+	private static final String CONTENT = "class A { int i; }\n".repeat(100);
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void readsStoredAndDeflatedEntries() throws IOException {
+		Path zip = directory.resolve("sources.zip");
+		try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+			out.putNextEntry(new ZipEntry("a/"));
+			out.closeEntry();
+			out.putNextEntry(new ZipEntry("a/Deflated.java"));
+			out.write(CONTENT.getBytes(StandardCharsets.UTF_8));
+			out.closeEntry();
+			byte[] content = CONTENT.getBytes(StandardCharsets.UTF_8);
+			ZipEntry stored = new ZipEntry("a/Stored.java");
+			stored.setMethod(ZipEntry.STORED);
+			stored.setSize(content.length);
+			CRC32 crc = new CRC32();
+			crc.update(content);
+			stored.setCrc(crc.getValue());
+			out.putNextEntry(stored);
+			out.write(content);
+			out.closeEntry();
+		}
+
+		MappedZip mapped = new MappedZip(zip);
+		assertEquals(List.of("a/", "a/Deflated.java", "a/Stored.java"), List.copyOf(mapped.entries().keySet()));
+		assertTrue(mapped.entry("a/").isDirectory());
+		assertEquals(CONTENT, read(mapped, "a/Deflated.java"));
+		assertEquals(CONTENT, read(mapped, "a/Stored.java"));
+		assertEquals(CONTENT, new String(mapped.open(mapped.entry("a/Stored.java")).readAllBytes(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void readsSizesAndOffsetsFromZip64ExtraFields() throws IOException {
+		Path zip = write(archive(true, true));
+		MappedZip.Entry entry = new MappedZip(zip).entry("A.java");
+		assertEquals(CONTENT.length(), entry.size());
+		assertEquals(CONTENT.length(), entry.compressedSize());
+		assertEquals(0, entry.localHeaderOffset());
+		assertEquals(CONTENT, read(new MappedZip(zip), "A.java"));
+	}
+
+	@Test
+	public void rejectsZip64MarkersWithoutExtraField() throws IOException {
+		Path zip = write(archive(true, false));
+		assertThrows(ZipException.class, () -> new MappedZip(zip));
+	}
+
+	@Test
+	public void readsArchivesWithoutZip64() throws IOException {
+		assertEquals(CONTENT, read(new MappedZip(write(archive(false, false))), "A.java"));
+	}
+
+	@Test
+	public void rejectsZip64EndOfCentralDirectory() throws IOException {
+		byte[] bytes = archive(false, false);
+		// Marks the offset of the central directory as held by a ZIP64 end of central directory record.
+		ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(bytes.length - 22 + 16, -1);
+		Path zip = write(bytes);
+		assertThrows(ZipException.class, () -> new MappedZip(zip));
+	}
+
+	@Test
+	public void rejectsTruncatedArchives() throws IOException {
+		byte[] bytes = archive(false, false);
+		// Points the central directory past the end of the archive.
+		ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(bytes.length - 22 + 16, bytes.length);
+		Path zip = write(bytes);
+		assertThrows(ZipException.class, () -> new MappedZip(zip));
+	}
+
+	@Test
+	public void rejectsOtherFiles() throws IOException {
+		Path zip = write("not a zip archive".getBytes(StandardCharsets.UTF_8));
+		assertThrows(ZipException.class, () -> new MappedZip(zip));
+	}
+
+	private Path write(byte[] bytes) throws IOException {
+		return Files.write(Files.createTempFile(directory, "archive", ".zip"), bytes);
+	}
+
+	private static String read(MappedZip zip, String name) throws IOException {
+		return StandardCharsets.UTF_8.decode(zip.read(zip.entry(name))).toString();
+	}
+
+	/// Returns an archive holding `A.java` stored, whose central directory entry marks its sizes and offset as held
+	/// by a ZIP64 extra field if `zip64`, and holds them in one after an unrelated extra field if `extra`.
+	private static byte[] archive(boolean zip64, boolean extra) throws IOException {
+		byte[] content = CONTENT.getBytes(StandardCharsets.UTF_8);
+		byte[] name = "A.java".getBytes(StandardCharsets.UTF_8);
+		CRC32 crc = new CRC32();
+		crc.update(content);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		// Local header
+		writeInt(out, 0x04034b50);
+		writeShort(out, 20);
+		writeShort(out, 0);
+		writeShort(out, 0);
+		writeInt(out, 0);
+		writeInt(out, (int) crc.getValue());
+		writeInt(out, content.length);
+		writeInt(out, content.length);
+		writeShort(out, name.length);
+		writeShort(out, 0);
+		out.write(name);
+		out.write(content);
+
+		// Central directory
+		int centralDirectory = out.size();
+		ByteArrayOutputStream extras = new ByteArrayOutputStream();
+		if (extra) {
+			writeShort(extras, 0x5455);
+			writeShort(extras, 5);
+			extras.write(new byte[5]);
+			writeShort(extras, 0x0001);
+			writeShort(extras, 3 * Long.BYTES);
+			writeLong(extras, content.length);
+			writeLong(extras, content.length);
+			writeLong(extras, 0);
+		}
+		writeInt(out, 0x02014b50);
+		writeShort(out, 45);
+		writeShort(out, 45);
+		writeShort(out, 0);
+		writeShort(out, 0);
+		writeInt(out, 0);
+		writeInt(out, (int) crc.getValue());
+		writeInt(out, zip64 ? -1 : content.length);
+		writeInt(out, zip64 ? -1 : content.length);
+		writeShort(out, name.length);
+		writeShort(out, extras.size());
+		writeShort(out, 0);
+		writeShort(out, 0);
+		writeShort(out, 0);
+		writeInt(out, 0);
+		writeInt(out, zip64 ? -1 : 0);
+		out.write(name);
+		extras.writeTo(out);
+		int centralDirectorySize = out.size() - centralDirectory;
+
+		// End of central directory
+		writeInt(out, 0x06054b50);
+		writeShort(out, 0);
+		writeShort(out, 0);
+		writeShort(out, 1);
+		writeShort(out, 1);
+		writeInt(out, centralDirectorySize);
+		writeInt(out, centralDirectory);
+		writeShort(out, 0);
+		return out.toByteArray();
+	}
+
+	private static void writeShort(OutputStream out, int value) throws IOException {
+		out.write(value);
+		out.write(value >>> 8);
+	}
+
+	private static void writeInt(OutputStream out, int value) throws IOException {
+		writeShort(out, value);
+		writeShort(out, value >>> 16);
+	}
+
+	private static void writeLong(OutputStream out, long value) throws IOException {
+		writeInt(out, (int) value);
+		writeInt(out, (int) (value >>> 32));
+	}
+}
@@ -0,0 +1,119 @@
+package test;
+
+import java2rust.SpillStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SpillStoreTest {
+	@TempDir
+	Path directory;
+
+	@Test
+	public void readsRecordsOnceFlushed() throws IOException {
+		try (SpillStore store = new SpillStore(directory)) {
+			store.putName("a.B.c()", "c");
+			store.putThrown("a.B.c()", List.of("java.io.IOException", "java.lang.Exception"));
+			store.putThrown("a.B.d()", List.of());
+			assertNull(store.name("a.B.c()"));
+
+			store.flush();
+			assertEquals("c", store.name("a.B.c()"));
+			assertEquals(Set.of("java.io.IOException", "java.lang.Exception"), store.thrown("a.B.c()"));
+			assertEquals(Set.of(), store.thrown("a.B.d()"));
+			assertNull(store.name("a.B.d()"));
+			assertNull(store.thrown("a.B.e()"));
+		}
+	}
+
+	@Test
+	public void deletesItsFileOnceClosed() throws IOException {
+		SpillStore store = new SpillStore(directory);
+		store.putName("a", "b");
+		store.flush();
+		store.close();
+		assertFalse(Files.exists(store.file));
+	}
+
+	@Test
+	public void tellsKeysOfTheSameHashApart() throws IOException {
+		try (SpillStore store = new SpillStore(directory, SpillStore.SEGMENT_SIZE, _ -> 42)) {
+			for (int i = 0; i < 100; i++)
+				store.putName("key" + i, "name" + i);
+			store.flush();
+			for (int i = 0; i < 100; i++)
+				assertEquals("name" + i, store.name("key" + i));
+			assertNull(store.name("key100"));
+		}
+	}
+
+	@Test
+	public void readsTheLastRecordOfAKeyPutAgainAcrossAGrow() throws IOException {
+		// Every key hashes to the last slot, so that the records of the key are probed past the end of the index.
+		try (SpillStore store = new SpillStore(directory, SpillStore.SEGMENT_SIZE, _ -> -1)) {
+			store.putName("key", "first");
+			for (int i = 0; i < 5000; i++) {
+				store.putName("other" + i, "name" + i);
+				if (i % 1000 == 0)
+					store.putName("key", "put " + i);
+			}
+			store.putName("key", "last");
+			store.flush();
+			assertEquals("last", store.name("key"));
+			assertEquals("name4999", store.name("other4999"));
+		}
+	}
+
+	@Test
+	public void readsTheLastRecordOfAKeyPutAgain() throws IOException {
+		try (SpillStore store = new SpillStore(directory)) {
+			for (int i = 0; i < 5000; i++)
+				store.putName("key" + i, "first");
+			for (int i = 0; i < 5000; i++)
+				store.putName("key" + i, "second");
+			store.flush();
+			for (int i = 0; i < 5000; i++)
+				assertEquals("second", store.name("key" + i));
+		}
+	}
+
+	@Test
+	public void neverSplitsRecordsAcrossSegments() throws IOException {
+		// Records of 4 strings of 4 bytes, each 4 + 4 * (4 + 4) = 36 bytes, so that one fits in each segment.
+		try (SpillStore store = new SpillStore(directory, 64, SpillStoreTest::hash)) {
+			for (int i = 0; i < 10; i++)
+				store.putThrown("k%03d".formatted(i), List.of("a%03d".formatted(i), "b%03d".formatted(i), "c%03d".formatted(i)));
+			store.flush();
+			assertEquals(9 * 64 + 36, store.size());
+			for (int i = 0; i < 10; i++)
+				assertEquals(Set.of("a%03d".formatted(i), "b%03d".formatted(i), "c%03d".formatted(i)), store.thrown("k%03d".formatted(i)));
+
+			// Flushing again remaps the last segment, which grew.
+			store.putName("k010", "n010");
+			store.flush();
+			assertEquals("n010", store.name("k010"));
+			assertEquals(Set.of("a009", "b009", "c009"), store.thrown("k009"));
+		}
+	}
+
+	@Test
+	public void rejectsRecordsLargerThanASegment() throws IOException {
+		try (SpillStore store = new SpillStore(directory, 16, SpillStoreTest::hash)) {
+			assertThrows(IllegalArgumentException.class, () -> store.putName("key", "name"));
+		}
+	}
+
+	private static long hash(String key) {
+		return key.hashCode();
+	}
+}